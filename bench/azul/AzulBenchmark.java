@@ -0,0 +1,23 @@
+package azul;
+
+import main.Board;
+import main.BoardBenchmark;
+import main.MCTS;
+
+import java.util.Random;
+
+/**
+ * Three players in the first round, with factories filled as in {@link AzulPerfTest}.
+ */
+public class AzulBenchmark extends BoardBenchmark {
+
+	@Override
+	protected Board newPosition(Random random) {
+		return AzulPerfTest.newPosition();
+	}
+
+	@Override
+	protected MCTS newMcts() {
+		return AzulMain.newMcts(0.36);
+	}
+}
@@ -0,0 +1,17 @@
+package connectFour;
+
+import main.Board;
+import main.BoardBenchmark;
+
+import java.util.Random;
+
+/**
+ * An opening reached by six seeded random moves.
+ */
+public class ConnectFourBenchmark extends BoardBenchmark {
+
+	@Override
+	protected Board newPosition(Random random) {
+		return randomPosition(new ConnectFour(), 6, random);
+	}
+}
@@ -0,0 +1,17 @@
+package dylanean;
+
+import main.Board;
+import main.BoardBenchmark;
+
+import java.util.Random;
+
+/**
+ * The mid-game position that {@link DCMain} starts from, with player 0 to move.
+ */
+public class DylaneanChessBenchmark extends BoardBenchmark {
+
+	@Override
+	protected Board newPosition(Random random) {
+		return DCMain.newMidGame();
+	}
+}
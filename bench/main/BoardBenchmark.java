@@ -0,0 +1,153 @@
+package main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Board hot paths of one game, and the iterations per second of a full
+ * search, on a fixed position. Subclasses supply the position and configure the search.
+ * <p>
+ * All scores are operations per second. makeMove includes the duplicate() that gives it
+ * a fresh board, so subtract the cost of duplicate to isolate makeMove itself. Every
+ * measurement iteration restarts the random choices of getMoves, playout and search from
+ * {@link #SEED}, so runs replay exactly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class BoardBenchmark {
+
+	protected static final long SEED = 20_180_401L;
+	private static final int SEARCH_ITERATIONS = 1_000;
+
+	private Board board;
+	private Move move;
+	private Random random;
+	private MCTS mcts;
+
+	/**
+	 * Creates the position to benchmark. Use the given random number generator for any
+	 * random choices so that every run measures the same position.
+	 */
+	protected abstract Board newPosition(Random random);
+
+	/**
+	 * Creates the engine for the search benchmark. Override to configure it the way the
+	 * game's main class does.
+	 */
+	protected MCTS newMcts() {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(0.36);
+		return mcts;
+	}
+
+	@Setup
+	public void setUp() {
+		random = new Random(SEED);
+		board = newPosition(random);
+		if (board.gameOver()) {
+			throw new IllegalStateException("Benchmark position is already over");
+		}
+		move = board.getMoves(random).get(0);
+		mcts = newMcts();
+		reseed();
+	}
+
+	/**
+	 * Restarts the random choices of the benchmarks from the seed.
+	 */
+	@Setup(Level.Iteration)
+	public void reseed() {
+		random.setSeed(SEED);
+		mcts.setSeed(SEED);
+	}
+
+	@Benchmark
+	public Board duplicate() {
+		return board.duplicate();
+	}
+
+	@Benchmark
+	public List<Move> getMoves() {
+		return board.getMoves(random);
+	}
+
+	@Benchmark
+	public Board makeMove() {
+		Board b = board.duplicate();
+		b.makeMove(move);
+		return b;
+	}
+
+	@Benchmark
+	public double[] playout() {
+		return playout(board.duplicate(), random);
+	}
+
+	/**
+	 * Iterations per second of MCTS.runMCTS from the benchmark position.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(SEARCH_ITERATIONS)
+	public Node search() {
+		return mcts.runMCTS(board, SEARCH_ITERATIONS, 0L, mcts.newRootNode(board));
+	}
+
+	/**
+	 * Plays uniformly random moves, and weighted moves for the random player, until the game is over.
+	 */
+	public static double[] playout(Board board, Random random) {
+		while (!board.gameOver()) {
+			List<Move> moves = board.getMoves(random);
+			board.makeMove(moves.get(board.getCurrentPlayer() < 0
+					? randomIndex(board.getMoveWeights(), random)
+					: random.nextInt(moves.size())));
+		}
+		return board.getScore();
+	}
+
+	/**
+	 * Plays the given number of random moves from the board, stopping early if the game ends.
+	 */
+	public static <T extends Board> T randomPosition(T board, int plies, Random random) {
+		for (int i = 0; i < plies && !board.gameOver(); i++) {
+			List<Move> moves = board.getMoves(random);
+			board.makeMove(moves.get(board.getCurrentPlayer() < 0
+					? randomIndex(board.getMoveWeights(), random)
+					: random.nextInt(moves.size())));
+		}
+		return board;
+	}
+
+	private static int randomIndex(double[] weights, Random random) {
+		double totalWeight = 0.0d;
+		for (double weight : weights) {
+			totalWeight += weight;
+		}
+		double r = random.nextDouble() * totalWeight;
+		for (int i = 0; i < weights.length; i++) {
+			r -= weights[i];
+			if (r <= 0.0d) {
+				return i;
+			}
+		}
+		return weights.length - 1;
+	}
+}
@@ -0,0 +1,25 @@
+package ticTacToe;
+
+import main.Board;
+import main.BoardBenchmark;
+import main.MCTS;
+
+import java.util.Random;
+
+/**
+ * The empty board, so that playouts and searches cover the whole game.
+ */
+public class TicTacToeBenchmark extends BoardBenchmark {
+
+	@Override
+	protected Board newPosition(Random random) {
+		return new TicTacToe();
+	}
+
+	@Override
+	protected MCTS newMcts() {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(0.2);
+		return mcts;
+	}
+}
@@ -0,0 +1,30 @@
+package twothousandfortyeight;
+
+import main.Board;
+import main.BoardBenchmark;
+import main.MCTS;
+
+import java.util.Random;
+
+/**
+ * A 4x4 board started with two seeded random tiles, as in {@link TTFEMain}.
+ */
+public class TTFEBenchmark extends BoardBenchmark {
+
+	@Override
+	protected Board newPosition(Random random) {
+		TTFE b = new TTFE(4);
+		b.currentPlayer = -1;
+		b.makeMove(b.makeRandomChoice(random));
+		b.currentPlayer = -1;
+		b.makeMove(b.makeRandomChoice(random));
+		return b;
+	}
+
+	@Override
+	protected MCTS newMcts() {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(0.3d);
+		return mcts;
+	}
+}
@@ -5,18 +5,45 @@ import main.Move;
 import main.Utils;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 class Azul implements Board {
 
 	private static final int EXPANSIONS_PER_NODE = 7;
 	private static final double[] WEIGHTS = new double[EXPANSIONS_PER_NODE];
-	static final Random RANDOM = new Random();
 	private static final int MAX_TURNS = 1000;
 	private static final int MAX_TURN_SCORE = 5 + 5 + 2 + 7 + 10; // 29
 	static int[] factoriesPerPlayer = {0, 0, 5, 7, 9};
+	// Walls are masks with bit row * 5 + column set for every tile placed
+	private static final int[] ROW_MASKS = new int[5];
+	private static final int[] COLUMN_MASKS = new int[5];
+	private static final int[] COLOR_MASKS = new int[5]; // [color - 1]
+	// [line * 5 + position] tiles next to position in an unbroken run, for the 5-bit pattern of a row or column
+	private static final byte[] RUN_LENGTHS = new byte[32 * 5];
 
 	static {
 		Arrays.fill(WEIGHTS, 1.0d);
+		for (int row = 0; row < 5; row++) {
+			for (int col = 0; col < 5; col++) {
+				int bit = 1 << (row * 5 + col);
+				ROW_MASKS[row] |= bit;
+				COLUMN_MASKS[col] |= bit;
+				COLOR_MASKS[getWallColor(row, col) - 1] |= bit;
+			}
+		}
+		for (int line = 0; line < 32; line++) {
+			for (int position = 0; position < 5; position++) {
+				int run = 0;
+				for (int i = position - 1; i >= 0 && (line & 1 << i) != 0; i--) {
+					run++;
+				}
+				for (int i = position + 1; i < 5 && (line & 1 << i) != 0; i++) {
+					run++;
+				}
+				RUN_LENGTHS[line * 5 + position] = (byte) run;
+			}
+		}
 	}
 
 	// Colors are: 0-null 1-blue 2-yellow 3-red 4-black 5-teal
@@ -24,7 +51,7 @@ class Azul implements Board {
 	private boolean variantPlay;
 	private int[] points;
 	private double[] scores;
-	private byte[][][] walls; // [player][row][column]
+	private int[] wallMasks; // [player] bit row * 5 + column is set if the wall has a tile there
 	private byte[][] lineColors; // [player][line]
 	private byte[][] lineCounts; // [player][line] numberPlaced
 	private List<List<Byte>> floors; // [player] tile colors, zero for playFirstTile
@@ -56,18 +83,33 @@ class Azul implements Board {
 
 	private Azul(Azul z) {
 		init(z.numPlayers, z.variantPlay);
+		copyState(z);
+	}
+
+	/**
+	 * Overwrites the state of this board with the state of z, reusing this board's arrays and lists.
+	 * Both boards must have the same number of players.
+	 */
+	private void copyState(Azul z) {
 		Utils.copy1d(z.points, points, numPlayers);
-		Utils.copy3d(z.walls, walls, numPlayers, 5, 5);
+		Utils.copy1d(z.scores, scores, numPlayers);
+		Utils.copy1d(z.wallMasks, wallMasks, numPlayers);
 		Utils.copy2d(z.lineColors, lineColors, numPlayers, 5);
 		Utils.copy2d(z.lineCounts, lineCounts, numPlayers, 5);
-		for (List<Byte> f : z.floors) {
-			floors.add(new ArrayList<>(f));
+		for (int i = 0; i < numPlayers; i++) {
+			List<Byte> floor = floors.get(i);
+			floor.clear();
+			floor.addAll(z.floors.get(i));
 		}
+		tileBox.clear();
 		tileBox.addAll(z.tileBox);
+		tileBag.clear();
 		tileBag.addAll(z.tileBag);
+		factories.clear();
 		for (byte[] factory : z.factories) {
 			factories.add(factory.clone());
 		}
+		centerTiles.clear();
 		centerTiles.addAll(z.centerTiles);
 		playFirstTile = z.playFirstTile;
 		currentPlayer = z.currentPlayer;
@@ -82,7 +124,7 @@ class Azul implements Board {
 		this.variantPlay = variantPlay;
 		points = new int[numPlayers];
 		scores = new double[numPlayers];
-		walls = new byte[numPlayers][5][5];
+		wallMasks = new int[numPlayers];
 		lineColors = new byte[numPlayers][5];
 		lineCounts = new byte[numPlayers][5];
 		floors = new ArrayList<>(2);
@@ -96,30 +138,32 @@ class Azul implements Board {
 		return new Azul(this);
 	}
 
-	@Override // TODO: Cache this? At least for player moves
+	@Override
 	public List<Move> getMoves() {
+		return getMoves(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Refills of the factories are sampled from random.
+	 */
+	@Override // TODO: Cache this? At least for player moves
+	public List<Move> getMoves(RandomGenerator random) {
 		List<Move> moves = new ArrayList<>();
 		if (currentPlayer == -1) {
 			if (!roundComplete) {
 				throw new IllegalStateException("Incorrect to initialize board before round complete.");
 			}
 			for (int m = 0; m < EXPANSIONS_PER_NODE; m++) {
-				int numSelections = factoriesPerPlayer[numPlayers] * 4;
-				byte[] factorySelections = new byte[numSelections];
-				int bagSize = tileBag.size();
-				for (int i = 0; i < numSelections; i++) {
-					if (bagSize == 0) {
-						bagSize = tileBox.size();
-					}
-					factorySelections[i] = (byte) RANDOM.nextInt(bagSize--);
-				}
-				byte nextPlayer = playFirstTile == -1 ? (byte) RANDOM.nextInt(numPlayers) : playFirstTile;
-				moves.add(new AzulSetupMove(nextPlayer, factorySelections));
+				moves.add(sampleChanceMove(random));
 			}
 		} else {
 			// Temp structure for holding tiles for a factory. Used to eliminate duplicate moves.
 			List<Byte> colors = new ArrayList<>(4);
 			for (int factory = 0; factory < factories.size(); factory++) {
+				if (hasEarlierTwin(factory)) {
+					// Taking from either factory leads to the same position
+					continue;
+				}
 				colors.clear();
 				for (byte i : factories.get(factory)) {
 					colors.add(i);
@@ -134,6 +178,54 @@ class Azul implements Board {
 		return moves;
 	}
 
+	/**
+	 * Draws the tiles of the next round from the bag, and from the box once the bag is empty.
+	 */
+	@Override
+	public AzulSetupMove sampleChanceMove(RandomGenerator random) {
+		if (currentPlayer != -1 || !roundComplete) {
+			throw new IllegalStateException("Incorrect to initialize board before round complete.");
+		}
+		int numSelections = factoriesPerPlayer[numPlayers] * 4;
+		byte[] factorySelections = new byte[numSelections];
+		int bagSize = tileBag.size();
+		for (int i = 0; i < numSelections; i++) {
+			if (bagSize == 0) {
+				bagSize = tileBox.size();
+			}
+			factorySelections[i] = (byte) random.nextInt(bagSize--);
+		}
+		byte nextPlayer = playFirstTile == -1 ? (byte) random.nextInt(numPlayers) : playFirstTile;
+		return new AzulSetupMove(nextPlayer, factorySelections);
+	}
+
+	/**
+	 * Tells whether a factory before the given one holds the same tiles, in any order.
+	 *
+	 * @param factory 0-based factory
+	 */
+	private boolean hasEarlierTwin(int factory) {
+		int histogram = getTileHistogram(factories.get(factory));
+		for (int f = 0; f < factory; f++) {
+			if (getTileHistogram(factories.get(f)) == histogram) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Packs the number of tiles of each color into 3 bits per color, so that factories
+	 * holding the same tiles have the same histogram.
+	 */
+	private static int getTileHistogram(byte[] factory) {
+		int histogram = 0;
+		for (byte tile : factory) {
+			histogram += 1 << (3 * (tile - 1));
+		}
+		return histogram;
+	}
+
 	private void addMovesForColors(List<Move> moves, List<Byte> colors, byte factory) {
 		while (colors.size() > 0) {
 			byte color = colors.get(0);
@@ -143,7 +235,7 @@ class Azul implements Board {
 				byte lineCount = lineCounts[currentPlayer][row];
 				if (lineCount < row + 1 && // can't add tile to full pattern line
 						(lineColor == 0 || lineColor == color) && // can't mix colors on pattern line
-						getColumnWithColor(walls[currentPlayer][row], color) == 0 // can't place a tile on a row that already has that color
+						!hasTile(wallMasks[currentPlayer], row, getColumnForColor(row, color)) // can't place a tile on a row that already has that color
 						) {
 					String moveLegal = isMoveLegal(factory, color, row + 1, count);
 					if (moveLegal == null) {
@@ -313,7 +405,7 @@ class Azul implements Board {
 					".  Cannot place " + asColor2(color) + " tile.";
 		} else if (lineCounts[currentPlayer][line - 1] == line) {
 			return "Line " + line + " is full.";
-		} else if (getColumnWithColor(walls[currentPlayer][line - 1], color) != 0) {
+		} else if (hasTile(wallMasks[currentPlayer], line - 1, getColumnForColor(line - 1, color))) {
 			return "Wall already has " + asColor2(color) + " tile on line " + line + ".";
 		} else if (variantPlay) {
 			return "Wall already has " + asColor2(color) + " tile on line " + line + ".";
@@ -328,24 +420,51 @@ class Azul implements Board {
 			draw = true;
 		} else {
 			scoreGame();
+			draw = award(points, scores);
+		}
 
-			// Award 1.0 points to lone winner or 0.5 to those that are tied for first.
-			double highest = -1.0;
-			for (int i = 0; i < numPlayers; i++) {
-				if (points[i] > highest) {
-					highest = points[i];
-					draw = false;
-				} else if (points[i] == highest) {
-					draw = true;
-				}
-			}
-			double award = draw ? 0.5 : 1.0;
-			for (int i = 0; i < numPlayers; i++) {
-				scores[i] = points[i] == highest ? award : 0.0;
+		gameOver = true;
+	}
+
+	/**
+	 * Award 1.0 points to lone winner or 0.5 to those that are tied for first.
+	 *
+	 * @param points points for each player
+	 * @param scores receives the score vector
+	 * @return true if there is a tie for first
+	 */
+	private static boolean award(int[] points, double[] scores) {
+		boolean draw = false;
+		double highest = -1.0;
+		for (int point : points) {
+			if (point > highest) {
+				highest = point;
+				draw = false;
+			} else if (point == highest) {
+				draw = true;
 			}
 		}
+		double award = draw ? 0.5 : 1.0;
+		for (int i = 0; i < points.length; i++) {
+			scores[i] = points[i] == highest ? award : 0.0;
+		}
+		return draw;
+	}
 
-		gameOver = true;
+	/**
+	 * Scores the board as if the game ended after this round. Each player's projection is
+	 * points so far, plus the score of the current round and the end-of-game bonuses.
+	 */
+	double[] getProjectedScore() {
+		int[] projected = new int[numPlayers];
+		for (int player = 0; player < numPlayers; player++) {
+			projected[player] = points[player] +
+					(roundComplete ? 0 : getRoundScore(player, false)) +
+					getBonuses(wallMasks[player]);
+		}
+		double[] projectedScores = new double[numPlayers];
+		award(projected, projectedScores);
+		return projectedScores;
 	}
 
 	/**
@@ -362,14 +481,7 @@ class Azul implements Board {
 	}
 
 	private int getRoundScore(int player, boolean moveTiles) {
-		byte[][] wall;
-		if (moveTiles) {
-			wall = walls[player];
-		}
-		else {
-			wall = new byte[5][5];
-			Utils.copy2d(walls[player], wall, 5, 5);
-		}
+		int wall = wallMasks[player];
 		byte[] lineColor = lineColors[player];
 		byte[] lineCount = lineCounts[player];
 		int roundScore = 0;
@@ -378,20 +490,8 @@ class Azul implements Board {
 			byte count = lineCount[row];
 			if (count == row + 1) {
 				int col = getColumnForColor(row, color);
-				int horizontalNeighbors = 0;
-				for (int c = col - 1; c >= 0 && wall[row][c] != 0; c--) {
-					horizontalNeighbors++;
-				}
-				for (int c = col + 1; c < 5 && wall[row][c] != 0; c++) {
-					horizontalNeighbors++;
-				}
-				int verticalNeighbors = 0;
-				for (int r = row - 1; r >= 0 && wall[r][col] != 0; r--) {
-					verticalNeighbors++;
-				}
-				for (int r = row + 1; r < 5 && wall[r][col] != 0; r++) {
-					verticalNeighbors++;
-				}
+				int horizontalNeighbors = RUN_LENGTHS[getRowLine(wall, row) * 5 + col];
+				int verticalNeighbors = RUN_LENGTHS[getColumnLine(wall, col) * 5 + row];
 				if (horizontalNeighbors > 0 && verticalNeighbors > 0) {
 					roundScore += horizontalNeighbors + verticalNeighbors + 2;
 				} else if (horizontalNeighbors > 0) {
@@ -402,7 +502,7 @@ class Azul implements Board {
 					roundScore += 1;
 				}
 				// Move one tile to wall
-				wall[row][col] = color;
+				wall |= 1 << (row * 5 + col);
 				if (moveTiles) {
 					// Move remaining tiles to tile box
 					for (int ignore = 1; ignore < count; ignore++) {
@@ -438,6 +538,7 @@ class Azul implements Board {
 				break;
 		}
 		if (moveTiles) {
+			wallMasks[player] = wall;
 			for (Byte x : floor) {
 				if (x != 0) {
 					tileBox.add(x);
@@ -454,31 +555,49 @@ class Azul implements Board {
 	// Add bonuses for completed rows, columns and colors
 	private void scoreGame() {
 		for (int player = 0; player < numPlayers; player++) {
-			int bonuses = getBonuses(walls[player]);
+			int bonuses = getBonuses(wallMasks[player]);
 			points[player] += bonuses;
 		}
 	}
 
-	private int getBonuses(byte[][] wall) {
+	private static int getBonuses(int wall) {
 		int bonuses = 0;
-		byte tilesInRow[] = new byte[5];
-		byte tilesInCol[] = new byte[5];
-		byte colorCount[] = new byte[5];
-		for (int row = 0; row < 5; row++) {
-			for (int col = 0; col < 5; col++) {
-				if (wall[row][col] > 0) {
-					tilesInRow[row]++;
-					tilesInCol[col]++;
-					colorCount[wall[row][col] - 1]++;
-				}
+		for (int i = 0; i < 5; i++) {
+			if ((wall & ROW_MASKS[i]) == ROW_MASKS[i]) {
+				bonuses += 2;
+			}
+			if ((wall & COLUMN_MASKS[i]) == COLUMN_MASKS[i]) {
+				bonuses += 7;
+			}
+			if ((wall & COLOR_MASKS[i]) == COLOR_MASKS[i]) {
+				bonuses += 10;
 			}
 		}
-		bonuses += getMatchCount(tilesInRow, 5) * 2;
-		bonuses += getMatchCount(tilesInCol, 5) * 7;
-		bonuses += getMatchCount(colorCount, 5) * 10;
 		return bonuses;
 	}
 
+	private static boolean hasTile(int wall, int row, int col) {
+		return (wall & 1 << (row * 5 + col)) != 0;
+	}
+
+	/**
+	 * @return the tiles of a row of the wall as a 5-bit pattern, bit i for column i
+	 */
+	private static int getRowLine(int wall, int row) {
+		return wall >>> (row * 5) & 31;
+	}
+
+	/**
+	 * @return the tiles of a column of the wall as a 5-bit pattern, bit i for row i
+	 */
+	private static int getColumnLine(int wall, int col) {
+		int line = 0;
+		for (int row = 0; row < 5; row++) {
+			line |= (wall >>> (row * 5 + col) & 1) << row;
+		}
+		return line;
+	}
+
 	private long getMatchCount(byte[] array, int i) {
 		long count = 0L;
 		for (int c : array) {
@@ -548,10 +667,10 @@ class Azul implements Board {
 				// print wall
 				for (int c = 0; c < 5; c++) {
 					// lower case for board, upper case for player tiles
-					int wallColor = walls[p][r][c] == 0 ? getWallColor(r, c) : walls[p][r][c];
-					String wallString = walls[p][r][c] == 0 && variantPlay
+					boolean empty = !hasTile(wallMasks[p], r, c);
+					String wallString = empty && variantPlay
 							? ".."
-							: asColor2(wallColor, walls[p][r][c] == 0);
+							: asColor2(getWallColor(r, c), empty);
 					System.out.print(" " + wallString);
 				}
 				System.out.println();
@@ -630,7 +749,7 @@ class Azul implements Board {
 	 * @param col 0-based column
 	 * @return a 1-based color
 	 */
-	private int getWallColor(int row, int col) {
+	private static int getWallColor(int row, int col) {
 		return (5 + col - row) % 5 + 1;
 	}
 
@@ -641,26 +760,10 @@ class Azul implements Board {
 	 * @param color 1-based col
 	 * @return a 0-based column
 	 */
-	private int getColumnForColor(int row, int color) {
+	private static int getColumnForColor(int row, int color) {
 		return (color - 1 + row) % 5;
 	}
 
-	/**
-	 * Identifies the column having the given color on the given row on a standard board.
-	 *
-	 * @param line  a 5-element array of colors representing a row on a wall
-	 * @param color 1-based col
-	 * @return a 1-based column number if rhe color is found, 0 otherwise
-	 */
-	private int getColumnWithColor(byte[] line, int color) {
-		for (int i = 0, lineLength = line.length; i < lineLength; i++) {
-			if (line[i] == color) {
-				return i + 1;
-			}
-		}
-		return 0;
-	}
-
 	private String asColor2(int tile) {
 		return asColor2(tile, false);
 	}
@@ -698,16 +801,9 @@ class Azul implements Board {
 	}
 
 	private boolean isEndOfGame() {
-		for (byte[][] wall : walls) {
-			for (byte[] line : wall) {
-				boolean b = true;
-				for (int t : line) {
-					if (t == 0) {
-						b = false;
-						break;
-					}
-				}
-				if (b) {
+		for (int wall : wallMasks) {
+			for (int row : ROW_MASKS) {
+				if ((wall & row) == row) {
 					return true;
 				}
 			}
@@ -736,14 +832,48 @@ class Azul implements Board {
 	 * Scores board. Finds lead. Returns -1 for terrible move, 0 for neutral move, 1 for best possible move.
 	 */
 	double getHeuristic(AzulPlayerMove move) {
-		Azul b = duplicate(); // TODO: Reduce value if there are multiple factories with this combination of tiles
-		int base = b.points[currentPlayer] +
-				b.getRoundScore(currentPlayer, false) +
-				b.getBonuses(b.walls[currentPlayer]);
+		return getHeuristic(duplicate(), getHeuristicBase(), move);
+	}
+
+	/**
+	 * Scores every move in moves as {@link #getHeuristic(AzulPlayerMove)} would, but computes the score
+	 * before the move and allocates the scratch board only once. Moves other than player moves score 1.0.
+	 */
+	double[] getHeuristics(List<Move> moves) {
+		double[] heuristics = new double[moves.size()];
+		int base = getHeuristicBase();
+		Azul b = null;
+		for (int i = 0; i < heuristics.length; i++) {
+			Move move = moves.get(i);
+			if (move instanceof AzulPlayerMove) {
+				if (b == null) {
+					b = duplicate();
+				} else {
+					b.copyState(this);
+				}
+				heuristics[i] = getHeuristic(b, base, (AzulPlayerMove) move);
+			} else {
+				heuristics[i] = 1.0;
+			}
+		}
+		return heuristics;
+	}
+
+	private int getHeuristicBase() {
+		return points[currentPlayer] +
+				getRoundScore(currentPlayer, false) +
+				getBonuses(wallMasks[currentPlayer]);
+	}
+
+	/**
+	 * @param b    a copy of this board that the move will be made on
+	 * @param base the score of the current player before the move
+	 */
+	private double getHeuristic(Azul b, int base, AzulPlayerMove move) {
 		b.makeMove(move);
 		int score = b.points[currentPlayer] +
 				(b.isEndOfRound() ? 0 : b.getRoundScore(currentPlayer, false)) +
-				(b.isEndOfGame() ? 0 : b.getBonuses(walls[currentPlayer]));
+				(b.isEndOfGame() ? 0 : getBonuses(wallMasks[currentPlayer]));
 		int delta = score - base;
 		// Worst move can be very negative. Clipping at 0.
 		double unclipped = delta / MAX_TURN_SCORE;
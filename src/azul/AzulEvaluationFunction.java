@@ -0,0 +1,16 @@
+package azul;
+
+import main.Board;
+import main.support.EvaluationFunction;
+
+/**
+ * Scores a truncated playout by the points each player would have if the game ended
+ * after the current round, including end-of-game bonuses.
+ */
+public class AzulEvaluationFunction implements EvaluationFunction {
+
+	@Override
+	public double[] evaluate(Board board) {
+		return ((Azul) board).getProjectedScore();
+	}
+}
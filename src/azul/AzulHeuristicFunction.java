@@ -4,6 +4,8 @@ import main.Board;
 import main.Move;
 import main.support.HeuristicFunction;
 
+import java.util.List;
+
 public class AzulHeuristicFunction implements HeuristicFunction {
 
 	private double expCoef;
@@ -16,4 +18,9 @@ public class AzulHeuristicFunction implements HeuristicFunction {
 	public double h(Board board, Move move) {
 		return move instanceof  AzulPlayerMove ? ((Azul) board).getHeuristic((AzulPlayerMove) move) : 1.0;
 	}
+
+	@Override
+	public double[] h(Board board, List<Move> moves) {
+		return ((Azul) board).getHeuristics(moves);
+	}
 }
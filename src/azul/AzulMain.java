@@ -3,8 +3,10 @@ package azul;
 import main.MCTS;
 import main.Move;
 import main.Node;
+import main.TreeLogger;
 import main.Utils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -21,16 +23,19 @@ class AzulMain {
 	private static final long MAX_TIME = 10_000L;
 	private static final boolean MANUALLY_SET_FACTORIES = false;
 	private static final boolean BG_SEARCH = true;
+	private static final int PLAYOUT_DEPTH = 0; // cut playouts off after this many moves. 0 plays to end of game
 	private static boolean[] humanPlayer = {true, false};
 	private static ExecutorService executorService = Executors.newFixedThreadPool(1);
 
-	public static void main(String[] args) throws ExecutionException, InterruptedException {
+	public static void main(String[] args) throws ExecutionException, InterruptedException, IOException {
 		int[] scores = new int[3];
 		Azul azul = new Azul(humanPlayer.length, false);
 		// TODO: Broader exploration should apply to root node only?
 		// Do more exploration in background to increase chance that time is spent on move that player chooses
 		MCTS bg = newMcts(0.71);
 		MCTS fg = newMcts(0.36);
+		TreeLogger treeLogger = new TreeLogger(new File("nodes"));
+		fg.setTreeLogger(treeLogger);
 		Node fgNode = null;
 		Node bgNode = null;
 		try {
@@ -70,7 +75,7 @@ class AzulMain {
 						bgNode = new Node(azul);
 					}
 					else {
-						System.out.println("Branch searched " + (child.games - MCTS.GAMES_SIMULATED_BY_HEURISTIC) +
+						System.out.println("Branch searched " + (child.games - bg.getGamesSimulatedByHeuristic()) +
 								" out of " + oldRootNode.games + " times.");
 						bgNode = child;
 					}
@@ -107,6 +112,7 @@ class AzulMain {
 		}
 		finally {
 			executorService.shutdown();
+			treeLogger.close();
 		}
 	}
 
@@ -123,6 +129,11 @@ class AzulMain {
 		mcts.setExplorationConstant(explorationConstant);
 		mcts.setTimeDisplay(true);
 		mcts.setHeuristicFunction(new AzulHeuristicFunction(0.36));
+		mcts.setInformationSetSearch(true);
+		//noinspection ConstantConditions
+		if (PLAYOUT_DEPTH > 0) {
+			mcts.setPlayoutCutoff(PLAYOUT_DEPTH, new AzulEvaluationFunction());
+		}
 		return mcts;
 	}
 
@@ -0,0 +1,49 @@
+package azul;
+
+import main.Move;
+import main.support.MoveCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a player move as a 0 followed by factory, color, line and count, and a setup move
+ * as a 1 followed by the next player, the number of factory selections and the selections.
+ */
+public class AzulMoveCodec implements MoveCodec {
+
+	private static final int PLAYER_MOVE = 0;
+	private static final int SETUP_MOVE = 1;
+
+	@Override
+	public void encode(Move move, DataOutput out) throws IOException {
+		if (move instanceof AzulSetupMove) {
+			AzulSetupMove setupMove = (AzulSetupMove) move;
+			byte[] selections = setupMove.getFactorySelections();
+			out.writeByte(SETUP_MOVE);
+			out.writeByte(setupMove.getNextPlayer());
+			out.writeByte(selections.length);
+			out.write(selections);
+		} else {
+			AzulPlayerMove playerMove = (AzulPlayerMove) move;
+			out.writeByte(PLAYER_MOVE);
+			out.writeByte(playerMove.getFactory());
+			out.writeByte(playerMove.getColor());
+			out.writeByte(playerMove.getLine());
+			out.writeByte(playerMove.getCount());
+		}
+	}
+
+	@Override
+	public Move decode(ByteBuffer in) {
+		if (in.get() == SETUP_MOVE) {
+			byte nextPlayer = in.get();
+			byte[] selections = new byte[in.get()];
+			in.get(selections);
+			return new AzulSetupMove(nextPlayer, selections);
+		} else {
+			return new AzulPlayerMove(in.get(), in.get(), in.get(), in.get());
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package azul;
+
+import main.perf.PerfCase;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Azul positions of the performance regression suite.
+ */
+public class AzulPerfCases {
+
+	public static List<PerfCase> cases() {
+		return Collections.singletonList(
+				new PerfCase("azul.first-round", 5_000, AzulPerfTest::newPosition)
+						.setEngine(mcts -> {
+							mcts.setExplorationConstant(0.36);
+							mcts.setHeuristicFunction(new AzulHeuristicFunction(0.36));
+						}));
+	}
+}
@@ -30,10 +30,7 @@ public class AzulPerfTest {
 	private static final int BAG_SIZE = 7 * 4;
 
 	public static void main(String[] args) {
-		Azul azul = new Azul(3, false);
-		byte[] colors = new byte[] {5, 5, 3, 1, 5, 5, 3, 1, 5, 1, 4, 2, 3, 3, 1, 2, 2, 2, 5, 5, 5, 5, 4, 1, 1, 1, 2, 2};
-		byte[] selections = getSelections(azul, colors);
-		azul.makeMove(new AzulSetupMove(0, selections));
+		Azul azul = newPosition();
 		MCTS mcts = AzulMain.newMcts(0.36);
 		runIteration(azul, mcts);
 		runIteration(azul, mcts);
@@ -42,6 +39,17 @@ public class AzulPerfTest {
 		runIteration(azul, mcts);
 	}
 
+	/**
+	 * Three players with the factories of the first round filled from a fixed bag.
+	 */
+	static Azul newPosition() {
+		Azul azul = new Azul(3, false);
+		byte[] colors = new byte[] {5, 5, 3, 1, 5, 5, 3, 1, 5, 1, 4, 2, 3, 3, 1, 2, 2, 2, 5, 5, 5, 5, 4, 1, 1, 1, 2, 2};
+		byte[] selections = getSelections(azul, colors);
+		azul.makeMove(new AzulSetupMove(0, selections));
+		return azul;
+	}
+
 	private static void runIteration(Azul azul, MCTS mcts) {
 		long startTime = System.currentTimeMillis();
 		mcts.runMCTS_UCT(azul.duplicate(), 20_000, 0);
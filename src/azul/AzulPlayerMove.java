@@ -47,6 +47,10 @@ class AzulPlayerMove implements Move {
 		return line;
 	}
 
+	byte getCount() {
+		return count;
+	}
+
 	@Override
 	public int compareTo(final Move o) {
 		throw new UnsupportedOperationException();
@@ -0,0 +1,33 @@
+package azul;
+
+import main.tournament.EngineConfig;
+import main.tournament.ParameterTuner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tunes the Azul engine against the foreground settings of AzulMain by successive
+ * halving over the exploration constant and the weight of the heuristic.
+ */
+class AzulTuner {
+
+	private static final int RUNS = 20_000;
+
+	public static void main(String[] args) throws IOException {
+		List<EngineConfig> candidates = ParameterTuner.grid(
+				new double[]{0.25d, 0.36d, 0.5d, 0.71d, 1.0d},
+				new int[]{10, 30, 100},
+				RUNS,
+				0L,
+				config -> config.setHeuristicFunction(new AzulHeuristicFunction(0.36)));
+		ParameterTuner tuner = new ParameterTuner(random -> new Azul(2, false), candidates);
+		tuner.setOpponent(new EngineConfig("AzulMain", 0.36d, RUNS, 0L)
+				.setHeuristicFunction(new AzulHeuristicFunction(0.36)));
+		tuner.setProgress(true);
+		EngineConfig best = tuner.tune(4);
+		System.out.println("Best: " + best);
+		tuner.writeCsv(new File("azul-tuning.csv"));
+	}
+}
@@ -0,0 +1,27 @@
+package connectFour;
+
+import main.MCTS;
+import main.OpeningBookBuilder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Builds the Connect Four opening book read by C4Main. Every position in the first
+ * PLIES moves is searched, which is 7^0 + ... + 7^(PLIES-1) positions less transpositions.
+ */
+class C4BookBuilder {
+
+	static final File BOOK_FILE = new File("connectFour.book");
+	private static final int PLIES = 4;
+	private static final int RUNS = 2_000_000;
+
+	public static void main(String[] args) throws IOException {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(1.4d);
+		OpeningBookBuilder builder = new OpeningBookBuilder(mcts, new ConnectFourMoveCodec());
+		builder.add(new ConnectFour(), PLIES, Integer.MAX_VALUE, RUNS, 0L);
+		builder.write(BOOK_FILE);
+		System.out.println("Wrote " + builder.size() + " positions to " + BOOK_FILE);
+	}
+}
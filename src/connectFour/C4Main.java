@@ -2,6 +2,7 @@ package connectFour;
 
 import main.MCTS;
 import main.Move;
+import main.OpeningBook;
 
 import java.io.BufferedWriter;
 import java.io.FileOutputStream;
@@ -21,6 +22,16 @@ class C4Main {
 		MCTS player = new MCTS();
 		player.setExplorationConstant(exp);
 		player.setTimeDisplay(true);
+		player.setCompactStatistics(true);
+		player.setSymmetryMerging(true);
+		player.setSolvedPositionCache(1 << 20);
+		if (C4BookBuilder.BOOK_FILE.exists()) {
+			try {
+				player.setOpeningBook(OpeningBook.open(C4BookBuilder.BOOK_FILE, new ConnectFourMoveCodec()));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 
 		scorePlayer0 = 0;
 		scorePlayer1 = 0;
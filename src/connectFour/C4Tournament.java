@@ -0,0 +1,31 @@
+package connectFour;
+
+import main.tournament.EngineConfig;
+import main.tournament.EngineStats;
+import main.tournament.Tournament;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Plays two Connect Four engines against each other, alternating colours, on all cores.
+ */
+class C4Tournament {
+
+	private static final int GAMES = 200;
+	private static final int RUNS = 20_000;
+
+	public static void main(String[] args) throws IOException {
+		Tournament tournament = new Tournament(random -> new ConnectFour(), Arrays.asList(
+				new EngineConfig("c1.4", 1.4d, RUNS, 0L),
+				new EngineConfig("c0.7", 0.7d, RUNS, 0L)));
+		tournament.setProgress(true);
+		tournament.play(GAMES);
+		for (EngineStats stats : tournament.getStats()) {
+			System.out.println(stats);
+		}
+		tournament.writeGamesCsv(new File("c4-games.csv"));
+		tournament.writeSummaryCsv(new File("c4-summary.csv"));
+	}
+}
@@ -0,0 +1,44 @@
+package connectFour;
+
+import main.tournament.EngineConfig;
+import main.tournament.Tournament;
+
+import java.util.Arrays;
+
+/**
+ * Plays many short Connect Four games and checks that the heap does not grow with the
+ * number of games, as it would if the engines of finished games were kept alive.
+ */
+class C4TournamentMemoryTest {
+
+	private static final int BATCHES = 5;
+	private static final int GAMES_PER_BATCH = 40;
+	private static final int RUNS = 1_000;
+	private static final long MAX_GROWTH = 32L << 20;
+
+	public static void main(String[] args) {
+		Tournament tournament = new Tournament(random -> new ConnectFour(), Arrays.asList(
+				new EngineConfig("c1.4", 1.4d, RUNS, 0L),
+				new EngineConfig("c0.7", 0.7d, RUNS, 0L)));
+		tournament.setSeed(1);
+		tournament.play(GAMES_PER_BATCH);
+		long first = usedHeap();
+		for (int batch = 1; batch < BATCHES; batch++) {
+			tournament.play(GAMES_PER_BATCH);
+		}
+		long last = usedHeap();
+		System.out.println("Heap after " + GAMES_PER_BATCH + " games: " + (first >> 20) + " MB, after " +
+				BATCHES * GAMES_PER_BATCH + " games: " + (last >> 20) + " MB");
+		if (last - first > MAX_GROWTH) {
+			throw new IllegalStateException("The heap grew by " + ((last - first) >> 20) + " MB");
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -23,6 +23,8 @@ public class ConnectFour implements Board {
 	}
 
 	private ConnectFour(ConnectFour newBoard) {
+		board = new int[7][6];
+		freeSlots = new int[7];
 		for (int x = 0; x < 7; x++) {
 			System.arraycopy(newBoard.board[x], 0, board[x], 0, 6);
 		}
@@ -119,6 +121,39 @@ public class ConnectFour implements Board {
 			currentPlayer = 0;
 	}
 
+	/**
+	 * Each column contributes 7 bits: a 1 marking the height of the column, with the
+	 * pieces of player 1 set below it. The 49-bit result identifies the position exactly.
+	 */
+	@Override
+	public long getPositionHash() {
+		return hash(false);
+	}
+
+	/**
+	 * The smaller hash of the board and its mirror image.
+	 */
+	@Override
+	public long getCanonicalHash() {
+		return Math.min(hash(false), hash(true));
+	}
+
+	private long hash(boolean mirrored) {
+		long hash = 0L;
+		for (int i = 0; i < 7; i++) {
+			int x = mirrored ? 6 - i : i;
+			int height = 6 - freeSlots[x];
+			long column = 1L << height;
+			for (int h = 0; h < height; h++) {
+				if (board[x][5 - h] == 2) {
+					column |= 1L << h;
+				}
+			}
+			hash |= column << (7 * i);
+		}
+		return hash;
+	}
+
 	@Override
 	public int getQuantityOfPlayers() {
 		return 2;
@@ -24,4 +24,20 @@ class ConnectFourMove implements Move {
 	public int compareTo(Move o) {
 		throw new UnsupportedOperationException();
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		return row == ((ConnectFourMove) o).row;
+	}
+
+	@Override
+	public int hashCode() {
+		return row;
+	}
 }
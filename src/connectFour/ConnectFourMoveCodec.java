@@ -0,0 +1,24 @@
+package connectFour;
+
+import main.Move;
+import main.support.MoveCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a move as the single byte of its column.
+ */
+public class ConnectFourMoveCodec implements MoveCodec {
+
+	@Override
+	public void encode(Move move, DataOutput out) throws IOException {
+		out.writeByte(((ConnectFourMove) move).row);
+	}
+
+	@Override
+	public Move decode(ByteBuffer in) {
+		return new ConnectFourMove(in.get());
+	}
+}
@@ -0,0 +1,28 @@
+package connectFour;
+
+import main.perf.PerfCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Connect Four positions of the performance regression suite.
+ */
+public class ConnectFourPerfCases {
+
+	public static List<PerfCase> cases() {
+		return Arrays.asList(
+				new PerfCase("connectFour.empty", 50_000, ConnectFour::new)
+						.setEngine(mcts -> mcts.setCompactStatistics(true)),
+				new PerfCase("connectFour.six-plies", 50_000, () -> play(3, 3, 2, 4, 4, 2))
+						.setEngine(mcts -> mcts.setCompactStatistics(true)));
+	}
+
+	private static ConnectFour play(int... columns) {
+		ConnectFour board = new ConnectFour();
+		for (int column : columns) {
+			board.makeMove(new ConnectFourMove(column));
+		}
+		return board;
+	}
+}
@@ -0,0 +1,33 @@
+package dylanean;
+
+import main.MCTS;
+import main.OpeningBookBuilder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Builds the Dylanean Chess opening book read by DCMain. The setup phase has far too many
+ * placements to cover, so only the BRANCHING most visited moves are followed from each position.
+ * <p>
+ * The book covers only the first PLIES of the 38 placements of the setup phase, in 63
+ * positions. A game leaves it after at most three placements by each player, or sooner once a
+ * player places a piece outside the two most visited moves. Following even one line through
+ * the whole setup phase would take 38 searches per line at MAX_TIME each.
+ */
+class DCBookBuilder {
+
+	static final File BOOK_FILE = new File("dylanean.book");
+	private static final int PLIES = 6;
+	private static final int BRANCHING = 2;
+	private static final long MAX_TIME = 60_000L;
+
+	public static void main(String[] args) throws IOException {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(0.36);
+		OpeningBookBuilder builder = new OpeningBookBuilder(mcts, new DCMoveCodec());
+		builder.add(new DylaneanChess(), PLIES, BRANCHING, 0, MAX_TIME);
+		builder.write(BOOK_FILE);
+		System.out.println("Wrote " + builder.size() + " positions to " + BOOK_FILE);
+	}
+}
@@ -0,0 +1,68 @@
+package dylanean;
+
+import main.MCTS;
+import main.Move;
+import main.Node;
+import main.OpeningBook;
+import main.OpeningBookBuilder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Builds a small Dylanean Chess book and checks that it returns the moves it stored.
+ */
+class DCBookTest {
+
+	private static final long SEED = 35L;
+	private static final int RUNS = 300;
+
+	public static void main(String[] args) throws IOException {
+		// The builder's first search repeats this one, as both start from the same seed
+		DylaneanChess start = new DylaneanChess();
+		MCTS mcts = newMcts();
+		Node root = mcts.runMCTS(start, RUNS, 0L, mcts.newRootNode(start));
+		Node best = null;
+		Node worst = null;
+		for (Node child : root.children) {
+			if (!child.pruned && (best == null || child.games > best.games)) {
+				best = child;
+			}
+			if (!child.pruned && (worst == null || child.games <= worst.games)) {
+				worst = child;
+			}
+		}
+
+		File file = File.createTempFile("dylanean", ".book");
+		file.deleteOnExit();
+		OpeningBookBuilder builder = new OpeningBookBuilder(newMcts(), new DCMoveCodec());
+		builder.add(new DylaneanChess(), 2, 2, RUNS, 0L);
+		builder.write(file);
+		if (builder.size() != 3) {
+			throw new IllegalStateException("Expected 3 positions, found " + builder.size());
+		}
+
+		OpeningBook book = OpeningBook.open(file, new DCMoveCodec());
+		Move stored = book.getBestMove(start);
+		if (!best.move.equals(stored)) {
+			throw new IllegalStateException("Book move " + stored + " is not the searched move " + best.move);
+		}
+		DylaneanChess next = start.duplicate();
+		next.makeMove(stored);
+		if (book.getBestMove(next) == null) {
+			throw new IllegalStateException("The position after the book move is missing");
+		}
+		DylaneanChess outside = start.duplicate();
+		outside.makeMove(worst.move);
+		if (book.getBestMove(outside) != null) {
+			throw new IllegalStateException("The position after " + worst.move + " should not be in the book");
+		}
+	}
+
+	private static MCTS newMcts() {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(0.36);
+		mcts.setSeed(SEED);
+		return mcts;
+	}
+}
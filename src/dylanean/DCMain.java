@@ -2,6 +2,7 @@ package dylanean;
 
 import main.MCTS;
 import main.Move;
+import main.OpeningBook;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -14,10 +15,17 @@ class DCMain {
 	private static final long MAX_TIME = 10_000L;
 	private static boolean[] humanPlayer = {true, false};
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 		MCTS mcts = new MCTS();
 		mcts.setExplorationConstant(0.36);
 		mcts.setTimeDisplay(true);
+		mcts.setCompactStatistics(true);
+		mcts.setSymmetryMerging(true);
+		mcts.setSolvedPositionCache(1 << 20);
+		// The book covers at most the first 6 of the 38 setup placements, so later ones are searched
+		if (DCBookBuilder.BOOK_FILE.exists()) {
+			mcts.setOpeningBook(OpeningBook.open(DCBookBuilder.BOOK_FILE, new DCMoveCodec()));
+		}
 		Move move;
 		int[] scores = new int[3];
 
@@ -134,7 +142,7 @@ class DCMain {
 		return c;
 	}
 
-	private static DylaneanChess newMidGame() {
+	static DylaneanChess newMidGame() {
 		int[][] board = new int[12][6];
 		board[0][3] = -4;
 		board[4][3] = -3;
@@ -27,6 +27,10 @@ class DCMove implements Move {
 		this.toFile = toFile;
 	}
 
+	int getPieceType() {
+		return pieceType;
+	}
+
 	int getFromRank() {
 		return fromRank;
 	}
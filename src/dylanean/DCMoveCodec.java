@@ -0,0 +1,46 @@
+package dylanean;
+
+import main.Move;
+import main.support.MoveCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a move as a 0 followed by piece type, from rank, from file, to rank and to file,
+ * and a setup move as a 1 followed by piece, rank and file.
+ */
+public class DCMoveCodec implements MoveCodec {
+
+	private static final int MOVE = 0;
+	private static final int SETUP_MOVE = 1;
+
+	@Override
+	public void encode(Move move, DataOutput out) throws IOException {
+		if (move instanceof DCSetupMove) {
+			DCSetupMove setupMove = (DCSetupMove) move;
+			out.writeByte(SETUP_MOVE);
+			out.writeByte(setupMove.getPiece());
+			out.writeByte(setupMove.getRank());
+			out.writeByte(setupMove.getFile());
+		} else {
+			DCMove dcMove = (DCMove) move;
+			out.writeByte(MOVE);
+			out.writeByte(dcMove.getPieceType());
+			out.writeByte(dcMove.getFromRank());
+			out.writeByte(dcMove.getFromFile());
+			out.writeByte(dcMove.getToRank());
+			out.writeByte(dcMove.getToFile());
+		}
+	}
+
+	@Override
+	public Move decode(ByteBuffer in) {
+		if (in.get() == SETUP_MOVE) {
+			return new DCSetupMove(in.get(), in.get(), in.get());
+		} else {
+			return new DCMove(in.get(), in.get(), in.get(), in.get(), in.get());
+		}
+	}
+}
@@ -395,6 +395,41 @@ public class DylaneanChess implements Board {
 		}
 	}
 
+	/**
+	 * Hashes the board, the player to move, and the moves since the last capture. During
+	 * setup the unplaced pieces follow from the board.
+	 */
+	@Override
+	public long getPositionHash() {
+		return hash(false);
+	}
+
+	/**
+	 * The smaller hash of the board and its mirror image. Every piece moves the same to
+	 * either side, so a position and its mirror image have the same value.
+	 */
+	@Override
+	public long getCanonicalHash() {
+		return Math.min(hash(false), hash(true));
+	}
+
+	private long hash(boolean mirrored) {
+		long hash = currentPlayer;
+		hash = hash * 31 + movesSinceCapture;
+		for (int[] rank : board) {
+			for (int f = 0; f < 6; f++) {
+				hash = hash * 0x9E3779B97F4A7C15L + rank[mirrored ? 5 - f : f];
+			}
+		}
+		// Finalizer of MurmurHash3 to spread the bits of the hash
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
 	@Override
 	public int getNextPlayer(Move move) {
 		return OTHER_PLAYER[currentPlayer];
@@ -0,0 +1,26 @@
+package dylanean;
+
+import main.perf.PerfCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Dylanean Chess positions of the performance regression suite.
+ */
+public class DylaneanChessPerfCases {
+
+	public static List<PerfCase> cases() {
+		return Arrays.asList(
+				new PerfCase("dylanean.setup", 500, DylaneanChess::new)
+						.setEngine(mcts -> {
+							mcts.setExplorationConstant(0.36);
+							mcts.setCompactStatistics(true);
+						}),
+				new PerfCase("dylanean.mid-game", 5_000, DCMain::newMidGame)
+						.setEngine(mcts -> {
+							mcts.setExplorationConstant(0.36);
+							mcts.setCompactStatistics(true);
+						}));
+	}
+}
@@ -1,6 +1,7 @@
 package main;
 
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 public interface Board {
 
@@ -20,6 +21,18 @@ public interface Board {
 	 */
 	List<Move> getMoves();
 
+	/**
+	 * Gets the available moves like {@link #getMoves()}, drawing any random numbers
+	 * from the given generator. MCTS always calls this with its own generator, so games
+	 * that sample some of their moves, such as the refills of Azul, must override it for
+	 * searches to be repeatable and free of contention between threads.
+	 *
+	 * @param random the random number generator of the caller
+	 */
+	default List<Move> getMoves(RandomGenerator random) {
+		return getMoves();
+	}
+
 	/**
 	 * Apply the move m to the current state of the board.
 	 */
@@ -61,6 +74,33 @@ public interface Board {
 	 */
 	double[] getMoveWeights();
 
+	/**
+	 * Draws one outcome of the random player, with the probabilities of the
+	 * weights. Information set searches call this instead of expanding every
+	 * outcome. The default chooses among {@link #getMoves(RandomGenerator)} by
+	 * {@link #getMoveWeights()}. Games whose outcomes are too many to list should
+	 * override it and sample the outcome directly.
+	 *
+	 * @param random the random number generator of the caller
+	 * @return a move of the random player
+	 */
+	default Move sampleChanceMove(RandomGenerator random) {
+		List<Move> moves = getMoves(random);
+		double[] weights = getMoveWeights();
+		double totalWeight = 0.0d;
+		for (double weight : weights) {
+			totalWeight += weight;
+		}
+		double r = random.nextDouble() * totalWeight;
+		for (int i = 0; i < weights.length - 1; i++) {
+			r -= weights[i];
+			if (r < 0.0d) {
+				return moves.get(i);
+			}
+		}
+		return moves.get(weights.length - 1);
+	}
+
 	void bPrint();
 
 	/**
@@ -76,4 +116,29 @@ public interface Board {
 		tempBoard.makeMove(move);
 		return tempBoard.getCurrentPlayer();
 	}
+
+	/**
+	 * Returns a 64-bit hash of the current state, including the player to move.
+	 * Equal states must have equal hashes, and different states should have
+	 * different hashes. Used to look up positions in an {@link OpeningBook}.
+	 *
+	 * @return the hash of this position
+	 * @throws UnsupportedOperationException if the game does not support hashing
+	 */
+	default long getPositionHash() {
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support position hashing");
+	}
+
+	/**
+	 * Returns a hash like {@link #getPositionHash()} that is equal for positions which are
+	 * symmetric under the rules, such as mirror images, because they have the same value.
+	 * MCTS uses it to merge symmetric children and to cache solved positions. The default
+	 * knows no symmetries and returns the position hash.
+	 *
+	 * @return the same hash for this position and every position symmetric to it
+	 * @throws UnsupportedOperationException if the game does not support hashing
+	 */
+	default long getCanonicalHash() {
+		return getPositionHash();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event covering one search iteration. Only one in
+ * {@link MCTS#ITERATION_EVENT_PERIOD} iterations is recorded.
+ */
+@Name("mcts.Iteration")
+@Label("MCTS Iteration")
+@Category("MCTS")
+@Description("A sampled iteration, with the time spent in each phase")
+class IterationEvent extends jdk.jfr.Event {
+	@Label("Selection Depth")
+	int selectionDepth;
+
+	@Label("Tree Policy")
+	@Timespan
+	long treePolicy;
+
+	@Label("Expansion")
+	@Timespan
+	long expansion;
+
+	@Label("Playout")
+	@Timespan
+	long playout;
+
+	@Label("Back Propagation")
+	@Timespan
+	long backPropagation;
+}
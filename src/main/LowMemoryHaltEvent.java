@@ -0,0 +1,21 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event emitted when a search halts because the heap is nearly full.
+ */
+@Name("mcts.LowMemoryHalt")
+@Label("MCTS Low Memory Halt")
+@Category("MCTS")
+class LowMemoryHaltEvent extends jdk.jfr.Event {
+	@Label("Iterations")
+	long iterations;
+
+	@Label("Search Time")
+	@Timespan(Timespan.MILLISECONDS)
+	long searchTime;
+}
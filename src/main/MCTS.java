@@ -1,65 +1,111 @@
 package main;
 
+import main.support.EvaluationFunction;
 import main.support.HeuristicFunction;
+import main.support.PlayoutPolicy;
+import main.support.UniformPlayoutPolicy;
 
 import javax.management.NotificationEmitter;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
 import java.lang.management.*;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class MCTS {
-	private static final Comparator<Node> NODE_PRINT_COMPARATOR = (o1, o2) -> o1.games == o2.games
-			? Double.compare(o1.score[o1.parent.player], o2.score[o2.parent.player])
-			: Double.compare(o1.games, o2.games);
 	public static final int GAMES_SIMULATED_BY_HEURISTIC = 30;
-	private final Random random;
+	public static final int MAX_SOLVED_POSITIONS = SolvedPositionCache.MAX_CAPACITY;
+	static final int ITERATION_EVENT_PERIOD = 1024; // power of two. Sample rate of IterationEvent
+	private RandomGenerator random;
 	private double explorationConstant = Math.sqrt(2.0);
 	private boolean trackTime; // display thinking time used
 	private HeuristicFunction heuristic;
-	private PrintWriter writer;
+	private int gamesSimulatedByHeuristic = GAMES_SIMULATED_BY_HEURISTIC;
+	private EvaluationFunction evaluator;
+	private PlayoutPolicy playoutPolicy = new UniformPlayoutPolicy();
+	private int playoutDepth; // moves before a playout is cut off and evaluated. 0 plays to the end
+	private boolean compactStatistics;
+	private int expansionThreshold; // visits a leaf needs before it is expanded
+	private boolean informationSets; // sample chance nodes instead of expanding them
+	private boolean lastIterationSampled;
+	private double wideningConstant; // chance nodes keep at most constant * visits^exponent children. 0 expands all
+	private double wideningExponent;
+	private boolean symmetryMerging;
+	private SolvedPositionCache solvedCache; // null unless solved positions are cached
+	private long[] childHashes = new long[0]; // scratch space of expandByHash
+	// The nodes of the current iteration and their canonical hashes, while solvedCache is on
+	private Node[] pathNodes = new Node[0];
+	private long[] pathHashes = new long[0];
+	private int pathLength;
+	private TreeLogger treeLogger;
+	private OpeningBook openingBook;
 	private volatile boolean requestCompletion = false;
 	private volatile boolean lowMemory = false;
-	private volatile int runs;
+	private SearchStats stats = new SearchStats();
+	private int iterationEventCountdown = ITERATION_EVENT_PERIOD;
+	private int lastSelectionDepth;
+	private com.sun.management.ThreadMXBean allocationCounter; // null unless allocation is tracked
+	private final UcbKernel ucbKernel = UcbKernel.INSTANCE;
+	// Scratch space of selectChild, grown to the widest node seen
+	private Node[] candidates = new Node[0];
+	private double[] candidateScores = new double[0];
+	private double[] candidateGames = new double[0];
+	private double[] candidateBounds = new double[0];
+	private final Map<Move, Node> childrenByMove = new HashMap<>(); // scratch space of selectAvailableChild
 
 	public MCTS() {
-		random = new Random();
-		try {
-			writer = new PrintWriter(new File("nodes"));
-		} catch (FileNotFoundException e) {
-			throw new RuntimeException(e);
-		}
-
-		initLowMemoryDetection();
+		random = new SplittableRandom();
+		LowMemoryDetection.register(this);
 	}
 
-	private void initLowMemoryDetection() {
-		// heuristic to find the tenured pool (largest heap) as seen on http://www.javaspecialists.eu/archive/Issue092.html
-		MemoryPoolMXBean tenuredGenPool = null;
-		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
-			if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()) {
-				tenuredGenPool = pool;
+	/**
+	 * Tells every engine when the heap is nearly full. A single listener serves all engines
+	 * and holds them weakly, so engines that are no longer used can be collected together
+	 * with their trees.
+	 */
+	private static class LowMemoryDetection {
+		private static final List<WeakReference<MCTS>> ENGINES = new ArrayList<>();
+
+		static {
+			// heuristic to find the tenured pool (largest heap) as seen on http://www.javaspecialists.eu/archive/Issue092.html
+			MemoryPoolMXBean tenuredGenPool = null;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()) {
+					tenuredGenPool = pool;
+				}
 			}
+			// we do something when we reached 90% of memory usage
+			tenuredGenPool.setCollectionUsageThreshold((int) Math.floor(tenuredGenPool.getUsage().getMax() * 0.50));
+
+			//set a listener
+			MemoryMXBean mbean = ManagementFactory.getMemoryMXBean();
+			NotificationEmitter emitter = (NotificationEmitter) mbean;
+			emitter.addNotificationListener((n, hb) -> {
+				if (n.getType().equals(MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED)) {
+					// this is the signal => end the application early to avoid OOME
+					synchronized (ENGINES) {
+						for (WeakReference<MCTS> reference : ENGINES) {
+							MCTS mcts = reference.get();
+							if (mcts != null) {
+								mcts.setLowMemory(true);
+							}
+						}
+					}
+				}
+			}, null, null);
 		}
-		// we do something when we reached 90% of memory usage
-		tenuredGenPool.setCollectionUsageThreshold((int) Math.floor(tenuredGenPool.getUsage().getMax() * 0.50));
 
-		//set a listener
-		MemoryMXBean mbean = ManagementFactory.getMemoryMXBean();
-		NotificationEmitter emitter = (NotificationEmitter) mbean;
-		emitter.addNotificationListener((n, hb) -> {
-			if (n.getType().equals(MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED)) {
-				// this is the signal => end the application early to avoid OOME
-				setLowMemory(true);
+		static void register(MCTS mcts) {
+			synchronized (ENGINES) {
+				ENGINES.removeIf(reference -> reference.get() == null);
+				ENGINES.add(new WeakReference<>(mcts));
 			}
-		}, null, null);
+		}
 	}
 
 	public Move selectRandom(Board startingBoard) {
 		Node rootNode = new Node(startingBoard);
 		if (rootNode.children == null) {
-			rootNode.expandNode(startingBoard);
+			rootNode.expandNode(startingBoard, random);
 		}
 		Node node = rootNode.children.get(random.nextInt(rootNode.children.size()));
 		return node.move;
@@ -73,7 +119,7 @@ public class MCTS {
 	 * @param maxTime       time (in ms) to spend thinking. Ignored unless runs == 0
 	 */
 	public Move runMCTS_UCT(Board startingBoard, int runs, long maxTime) {
-		Node rootNode = new Node(startingBoard);
+		Node rootNode = newRootNode(startingBoard);
 		return runMctsAndGetBestNode(startingBoard, runs, maxTime, rootNode);
 	}
 
@@ -83,37 +129,58 @@ public class MCTS {
 			System.out.println("Making choice for player: " + startingBoard.getCurrentPlayer());
 		}
 
+		Move bookMove = openingBook == null ? null : openingBook.getBestMove(startingBoard);
+		if (bookMove != null) {
+			stats = new SearchStats();
+			stats.stopReason = SearchStats.StopReason.BOOK;
+			if (rootNode.children == null) {
+				// Callers that keep the tree re-root it on the chosen move
+				rootNode.expandNode(startingBoard, random);
+			}
+			if (this.trackTime) {
+				System.out.println("Book move: " + bookMove);
+			}
+			return bookMove;
+		}
+
 		runMCTS(startingBoard, runs, maxTime, rootNode);
-		if (rootNode.endScore != null) {
+		if (this.trackTime && rootNode.endScore != null) {
 			System.out.println("Perfect play results in scores " + Arrays.toString(rootNode.endScore));
 		}
 		Node bestNodeFound = rootNode.endScore == null ? robustChild(rootNode) : unprunedChild(rootNode);
 		Move bestMoveFound = bestNodeFound.move;
 
-		writer.print("Player " + startingBoard.getCurrentPlayer() + " chooses " + bestMoveFound);
-		Node tempBest = bestNodeFound;
-		while (tempBest.children != null && !tempBest.children.isEmpty()) {
-			tempBest = robustChild(tempBest);
-			writer.println("=>");
-			writer.print("\tPlayer " + tempBest.parent.player + " chooses " + tempBest.move);
+		if (treeLogger != null) {
+			treeLogger.log(rootNode, bestNodeFound, stats.iterations);
 		}
-		writer.println();
-		writer.println("Choices\n" + getChildrenPrintString(rootNode.children));
-		writer.println("Children\n" + getChildrenPrintString(bestNodeFound.children));
-		writer.println();
-		writer.flush();
 
 		long endTime = System.currentTimeMillis();
 
 		if (this.trackTime) {
 			System.out.println("Selected move: " + bestMoveFound);
-			System.out.println("" + this.runs + " runs in " + (endTime - startTime) + " ms.");
+			System.out.println(stats + ". " + (endTime - startTime) + " ms in total.");
 		}
 
 		return bestMoveFound;
 	}
 
+	/**
+	 * Creates a root node for the board, compact if compact statistics are on.
+	 */
+	public Node newRootNode(Board startingBoard) {
+		return new Node(startingBoard, compactStatistics);
+	}
+
 	public Node runMCTS(Board startingBoard, int runs, long maxTime, Node rootNode) {
+		if (rootNode.isCompact() && startingBoard.getQuantityOfPlayers() != 2) {
+			throw new IllegalArgumentException("A compact tree cannot search a game of " + startingBoard.getQuantityOfPlayers() + " players.");
+		}
+		SearchStats stats = new SearchStats();
+		stats.allocationTracked = allocationCounter != null;
+		this.stats = stats;
+		long startNanos = System.nanoTime();
+		SearchEvent event = new SearchEvent();
+		event.begin();
 		try {
 			long startTime1 = System.currentTimeMillis();
 			// No need to make multiple runs for moves that will be selected randomly
@@ -121,51 +188,72 @@ public class MCTS {
 
 			int i = 1;
 			select(startingBoard.duplicate(), rootNode);
+			SearchStats.StopReason stopReason = SearchStats.StopReason.SINGLE_CHOICE;
 			// TODO: Do not skip this if this is bg thread
 			if (rootNode.children.size() > 1) {
-				while (shouldContinue(rootNode, maxRuns, maxTime, startTime1, i)) {
+				while ((stopReason = checkStop(rootNode, maxRuns, maxTime, startTime1, i)) == null) {
 					select(startingBoard.duplicate(), rootNode);
 					i++;
 				}
 			}
-			this.runs = i;
+			stats.stopReason = stopReason;
+			stats.iterations = i;
+			stats.elapsedNanos = System.nanoTime() - startNanos;
+			stats.root = new WeakReference<>(rootNode);
+			if (event.shouldCommit()) {
+				event.rootPlayer = startingBoard.getCurrentPlayer();
+				event.runBudget = runs;
+				event.timeBudget = maxTime;
+				event.iterations = i;
+				event.nodesCreated = stats.nodesCreated;
+				event.stopReason = stopReason.name();
+				event.commit();
+			}
 			return rootNode;
 		}
 		catch (Error e) {
 			System.out.println("Search process failed: " + e.getMessage());
 			throw e;
 		}
+		finally {
+			// Do not keep the tree alive after the search
+			Arrays.fill(candidates, null);
+		}
 	}
 
-	private boolean shouldContinue(Node rootNode, int maxRuns, long maxTime, long startTime, int runs) {
+	/**
+	 * @return the reason to stop searching, or null to continue
+	 */
+	private SearchStats.StopReason checkStop(Node rootNode, int maxRuns, long maxTime, long startTime, int runs) {
 		if (rootNode.endScore != null) {
-			return false;
+			return SearchStats.StopReason.SOLVED;
 		}
 		else if (maxRuns > 0 ) {
-			return runs < maxRuns;
+			return runs < maxRuns ? null : SearchStats.StopReason.RUNS;
 		}
 		else if (maxTime > 0 && getTimeSpent(startTime) > maxTime) {
-			return false;
+			return SearchStats.StopReason.TIME;
 		}
 		else if (lowMemory) {
+			long timeSpent = getTimeSpent(startTime);
 			System.out.println("Halting search after " + runs +
-					" runs and " + getTimeSpent(startTime) +
+					" runs and " + timeSpent +
 					" ms to preserve free memory");
-			return false;
+			LowMemoryHaltEvent event = new LowMemoryHaltEvent();
+			if (event.shouldCommit()) {
+				event.iterations = runs;
+				event.searchTime = timeSpent;
+				event.commit();
+			}
+			return SearchStats.StopReason.LOW_MEMORY;
 		}
-		return !requestCompletion;
+		return requestCompletion ? SearchStats.StopReason.REQUESTED : null;
 	}
 
 	private long getTimeSpent(long startTime) {
 		return System.currentTimeMillis() - startTime;
 	}
 
-	private String getChildrenPrintString(ArrayList<Node> children) {
-		List<Node> nodes = children == null ? Collections.emptyList() : new ArrayList<>(children);
-		nodes.sort(NODE_PRINT_COMPARATOR.reversed());
-		return nodes.toString().replace(", AzulPlayerMove", ",\nAzulPlayerMove");
-	}
-
 	/**
 	 * This represents the select stage, or default policy, of the algorithm.
 	 * Traverse down to the bottom of the tree using the selection strategy
@@ -179,58 +267,300 @@ public class MCTS {
 		// Begin tree policy. Traverse down the tree and expand. Return
 		// the new node or the deepest node it could reach. Return too
 		// a board matching the returned node.
-		BoardNodePair data = treePolicy(currentBoard, currentNode);
-		Board b = data.getBoard();
-		Node n = data.getNode();
+		IterationEvent event = null;
+		long expansionBefore = 0;
+		if (--iterationEventCountdown == 0) {
+			iterationEventCountdown = ITERATION_EVENT_PERIOD;
+			event = new IterationEvent();
+			event.begin();
+			expansionBefore = stats.expansionNanos;
+		}
+		long startBytes = allocatedBytes();
+		long start = System.nanoTime();
+		// The tree policy plays the moves to the returned node on currentBoard
+		Node n = treePolicy(currentBoard, currentNode);
+		long selected = System.nanoTime();
+		long selectedBytes = allocatedBytes();
+		// Expansion is measured separately inside the tree policy
+		stats.treePolicyNanos += selected - start;
+		stats.treePolicyBytes += selectedBytes - startBytes;
 
 		// If playedToEnd get score from node.endScore, else, run a random playout
-		double[] score = n.endScore == null ? playout(b) : n.endScore;
+		double[] score = n.endScore == null ? playout(currentBoard) : n.endScore;
+		long playedOut = System.nanoTime();
+		long playedOutBytes = allocatedBytes();
+		stats.playoutNanos += playedOut - selected;
+		stats.playoutBytes += playedOutBytes - selectedBytes;
+
+		// Back propagate results of playout. The outcome of a sampled game proves nothing
+		n.backPropagateScore(score, !lastIterationSampled);
+		if (solvedCache != null) {
+			cacheSolvedPath();
+		}
+		long end = System.nanoTime();
+		stats.backPropagationNanos += end - playedOut;
+		stats.backPropagationBytes += allocatedBytes() - playedOutBytes;
 
-		// Back propagate results of playout.
-		n.backPropagateScore(score, true);
+		if (event != null && event.shouldCommit()) {
+			event.expansion = stats.expansionNanos - expansionBefore;
+			event.treePolicy = selected - start - event.expansion;
+			event.playout = playedOut - selected;
+			event.backPropagation = end - playedOut;
+			event.selectionDepth = lastSelectionDepth;
+			event.commit();
+		}
 	}
 
-	private BoardNodePair treePolicy(Board b, Node node) {
+	private Node treePolicy(Board b, Node node) {
 		boolean atLeaf = false;
+		boolean sampled = false; // passed a chance node of an information set search
+		int depth = 0;
+		pathLength = 0;
+		if (solvedCache != null) {
+			recordPath(node, b);
+		}
 		while (!b.gameOver() && !atLeaf && node.endScore == null) {
 			atLeaf = node.children == null;
+			if (atLeaf && node.parent != null && node.games - heuristicGames(node) < expansionThreshold) {
+				// Not visited often enough to join the tree yet. The playout samples it instead
+				break;
+			}
+			if (informationSets && (sampled || node.player < 0 && node.parent != null)) {
+				// Below a chance node the legal moves depend on the sampled outcome
+				sampled = true;
+				depth++;
+				long created = stats.nodesCreated;
+				if (node.player < 0) {
+					node = sampleOutcome(b, node);
+				} else {
+					node = selectAvailableChild(b, node);
+					b.makeMove(node.move);
+				}
+				// Stop at a new node as at a newly expanded one
+				atLeaf = stats.nodesCreated > created;
+				continue;
+			}
+			if (wideningConstant > 0 && node.player < 0 && node.parent != null) {
+				depth++;
+				long created = stats.nodesCreated;
+				node = widenOutcome(b, node);
+				if (solvedCache != null) {
+					recordPath(node, b);
+				}
+				atLeaf = stats.nodesCreated > created;
+				continue;
+			}
 			if (atLeaf) {
-				node.expandNode(b);
+				long startBytes = allocatedBytes();
+				long start = System.nanoTime();
+				if ((symmetryMerging || solvedCache != null) && node.player >= 0) {
+					expandByHash(b, node);
+				} else {
+					node.expandNode(b, random);
+				}
 				if (heuristic != null) {
-					applyHeuristic(b, node);
+					applyHeuristic(b, node.children);
 				}
+				stats.nodesCreated += node.children.size();
+				recordExpansion(start, startBytes);
 			}
+			depth++;
 
 			if (node.player >= 0) { // this is a regular node
-				ArrayList<Node> bestNodes = findChildren(node, b);
-				if (bestNodes.size() == 0) {
+				Node best = selectChild(node);
+				if (best == null) {
 					// We have failed to find a single child to visit
 					// from a non-terminal node. Maybe all nodes have been pruned,
 					// or all nodes returned NaN for score, so we return a
 					// random node.
-					bestNodes = node.children;
+					best = node.children.get(random.nextInt(node.children.size()));
 				}
-				node = bestNodes.get(random.nextInt(bestNodes.size()));
+				node = best;
 				b.makeMove(node.move);
+				if (solvedCache != null) {
+					recordPath(node, b);
+				}
 			} else { // this is a random node
 
 				// The tree policy for random nodes is different. We
 				// ignore selection heuristics and pick one node at
 				// random based on the weight vector.
 
-				node = node.children.get(node.randomSelect(b));
+				node = node.children.get(node.randomSelect(b, random));
 				b.makeMove(node.move);
+				if (solvedCache != null) {
+					recordPath(node, b);
+				}
+			}
+		}
+
+		if (b.gameOver() && node.endScore == null && !sampled) {
+			node.setEndScore(b.getScore());
+		}
+		lastIterationSampled = sampled;
+		lastSelectionDepth = depth;
+		stats.totalSelectionDepth += depth;
+		if (depth > stats.maxSelectionDepth) {
+			stats.maxSelectionDepth = depth;
+		}
+
+		return node;
+	}
+
+	/**
+	 * Expands a node of a regular player by the canonical hashes of the positions that its
+	 * moves lead to. With symmetry merging only the first of the moves that lead to
+	 * symmetric positions gets a child. Children found in the solved position cache are
+	 * solved at once.
+	 */
+	private void expandByHash(Board b, Node node) {
+		List<Move> moves = b.getMoves(random);
+		node.children = new ArrayList<>(moves.size());
+		if (childHashes.length < moves.size()) {
+			childHashes = new long[Math.max(moves.size(), 2 * childHashes.length)];
+		}
+		int count = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			Move move = moves.get(i);
+			Board next = b.duplicate();
+			next.makeMove(move);
+			long hash = next.getCanonicalHash();
+			if (symmetryMerging && contains(childHashes, count, hash)) {
+				continue;
+			}
+			childHashes[count++] = hash;
+			Node child = node.addChild(move, next.getCurrentPlayer());
+			double[] endScore = solvedCache == null ? null : solvedCache.get(hash);
+			if (endScore != null) {
+				child.setEndScore(endScore);
+			}
+		}
+	}
+
+	private static boolean contains(long[] values, int count, long value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void recordPath(Node node, Board b) {
+		if (pathLength == pathNodes.length) {
+			int capacity = Math.max(16, 2 * pathNodes.length);
+			pathNodes = Arrays.copyOf(pathNodes, capacity);
+			pathHashes = Arrays.copyOf(pathHashes, capacity);
+		}
+		pathNodes[pathLength] = node;
+		pathHashes[pathLength] = b.getCanonicalHash();
+		pathLength++;
+	}
+
+	/**
+	 * Stores the solved nodes of the last iteration in the solved position cache. Selection
+	 * stops at a solved node, so they can only be the last nodes of the path.
+	 */
+	private void cacheSolvedPath() {
+		for (int i = pathLength - 1; i >= 0 && pathNodes[i].endScore != null; i--) {
+			solvedCache.put(pathHashes[i], pathNodes[i].endScore);
+		}
+		// Do not keep the tree alive after the search
+		Arrays.fill(pathNodes, 0, pathLength, null);
+	}
+
+	/**
+	 * Moves the time and bytes spent expanding since start out of the tree policy.
+	 */
+	private void recordExpansion(long start, long startBytes) {
+		long expansion = System.nanoTime() - start;
+		stats.expansionNanos += expansion;
+		stats.treePolicyNanos -= expansion;
+		long expansionBytes = allocatedBytes() - startBytes;
+		stats.expansionBytes += expansionBytes;
+		stats.treePolicyBytes -= expansionBytes;
+	}
+
+	/**
+	 * Plays an outcome of the random player drawn by the board and returns the child of
+	 * the player to move next, creating it if needed. All outcomes after which the same
+	 * player moves share one child, the root of their information set.
+	 */
+	private Node sampleOutcome(Board b, Node node) {
+		b.makeMove(b.sampleChanceMove(random));
+		int player = b.getCurrentPlayer();
+		if (node.children == null) {
+			node.children = new ArrayList<>(1);
+		}
+		for (int i = 0; i < node.children.size(); i++) {
+			Node child = node.children.get(i);
+			if (child.player == player) {
+				return child;
 			}
 		}
+		long startBytes = allocatedBytes();
+		long start = System.nanoTime();
+		Node child = new Node(node, player, b.getQuantityOfPlayers(), node.isCompact());
+		node.children.add(child);
+		stats.nodesCreated++;
+		recordExpansion(start, startBytes);
+		return child;
+	}
 
-		if (b.gameOver()) {
-			node.endScore = b.getScore();
+	/**
+	 * Plays an outcome of the random player and returns its child, by double progressive
+	 * widening. While the chance node has fewer children than its visits allow, the
+	 * outcome is drawn by the board and gets a child if it has none. Beyond that, one of
+	 * the outcomes already in the tree is chosen in proportion to its visits, so rare
+	 * outcomes share the statistics of the common ones instead of growing subtrees.
+	 */
+	private Node widenOutcome(Board b, Node node) {
+		if (node.children == null) {
+			node.children = new ArrayList<>();
+		}
+		List<Node> children = node.children;
+		if (children.size() < Math.ceil(wideningConstant * Math.pow(node.games + 1, wideningExponent))) {
+			Move move = b.sampleChanceMove(random);
+			for (int i = 0; i < children.size(); i++) {
+				Node child = children.get(i);
+				if (move.equals(child.move)) {
+					b.makeMove(child.move);
+					return child;
+				}
+			}
+			long startBytes = allocatedBytes();
+			long start = System.nanoTime();
+			Node child = node.addChild(b, move);
+			stats.nodesCreated++;
+			recordExpansion(start, startBytes);
+			b.makeMove(move);
+			return child;
+		}
+		double totalGames = 0;
+		for (int i = 0; i < children.size(); i++) {
+			totalGames += children.get(i).games;
+		}
+		double r = random.nextDouble() * totalGames;
+		Node child = children.get(children.size() - 1);
+		for (int i = 0; i < children.size() - 1; i++) {
+			r -= children.get(i).games;
+			if (r < 0) {
+				child = children.get(i);
+				break;
+			}
 		}
+		b.makeMove(child.move);
+		return child;
+	}
 
-		return new BoardNodePair(b, node);
+	/**
+	 * @return the games that the heuristic credited to the node when it was created
+	 */
+	private int heuristicGames(Node node) {
+		return heuristic != null && node.parent.player >= 0 ? gamesSimulatedByHeuristic : 0;
 	}
 
-	private void applyHeuristic(Board b, Node node) {
+	private void applyHeuristic(Board b, List<Node> children) {
 		int currentPlayer = b.getCurrentPlayer();
 		if (currentPlayer < 0) {
 			return;
@@ -238,15 +568,25 @@ public class MCTS {
 		int players = b.getQuantityOfPlayers();
 		double meanWinRate = 1.0d / players;
 		double meanLossRate = 1.0d - meanWinRate;
-		for (Node child : node.children) {
-			double h = heuristic.h(b, child.move);
+		List<Move> moves = new ArrayList<>(children.size());
+		for (Node child : children) {
+			moves.add(child.move);
+		}
+		double[] hs = heuristic.h(b, moves);
+		for (int c = 0; c < hs.length; c++) {
+			Node child = children.get(c);
+			double h = hs[c];
 			double boost = h > 0
-					? (meanWinRate + h * meanLossRate) * GAMES_SIMULATED_BY_HEURISTIC
-					: (meanWinRate + h * meanWinRate) * GAMES_SIMULATED_BY_HEURISTIC;
-			double remainder = ((double) GAMES_SIMULATED_BY_HEURISTIC - boost) / (players - 1);
-			for (int i = 0; i < child.score.length; i++) {
-				child.score[i] = i == currentPlayer ? boost : remainder;
-				child.games = GAMES_SIMULATED_BY_HEURISTIC;
+					? (meanWinRate + h * meanLossRate) * gamesSimulatedByHeuristic
+					: (meanWinRate + h * meanWinRate) * gamesSimulatedByHeuristic;
+			double remainder = ((double) gamesSimulatedByHeuristic - boost) / (players - 1);
+			child.games = gamesSimulatedByHeuristic;
+			if (child.score == null) {
+				child.value = (float) (currentPlayer == 0 ? boost : remainder);
+			} else {
+				for (int i = 0; i < child.score.length; i++) {
+					child.score[i] = i == currentPlayer ? boost : remainder;
+				}
 			}
 		}
 	}
@@ -256,21 +596,23 @@ public class MCTS {
 	 */
 	private Node robustChild(Node n) {
 		double bestValue = Double.NEGATIVE_INFINITY;
-		double tempBest;
-		ArrayList<Node> bestNodes = new ArrayList<>();
+		Node best = null;
+		int ties = 0;
 
-		for (Node s : n.children) {
-			tempBest = s.games;
+		for (int i = 0; i < n.children.size(); i++) {
+			Node s = n.children.get(i);
+			double tempBest = s.games;
 			if (tempBest > bestValue) {
-				bestNodes.clear();
-				bestNodes.add(s);
+				best = s;
 				bestValue = tempBest;
-			} else if (tempBest == bestValue) {
-				bestNodes.add(s);
+				ties = 1;
+			} else if (tempBest == bestValue && random.nextInt(++ties) == 0) {
+				// Reservoir sampling picks each of the tied nodes with equal chance
+				best = s;
 			}
 		}
 
-		return bestNodes.get(random.nextInt(bestNodes.size()));
+		return best;
 	}
 
 	private Node unprunedChild(Node n) {
@@ -283,24 +625,36 @@ public class MCTS {
 	}
 
 	/**
-	 * Playout function for MCTS
+	 * Playout function for MCTS. Plays to the end of the game unless a playout
+	 * cutoff is set, in which case the board is scored by the evaluator once
+	 * playoutDepth moves have been made. The moves are made on brd, which is
+	 * the copy the iteration started with, so the caller must not use it again.
 	 */
-	private double[] playout(Board board) {
+	private double[] playout(Board brd) {
 		List<Move> moves;
-		if (board.gameOver()) {
-			return board.getScore();
+		if (brd.gameOver()) {
+			return brd.getScore();
 		}
 
-		Board brd = board.duplicate();
+		int depth = 0;
+		stats.playouts++;
+		playoutPolicy.playoutStarted();
 		// Start playing random moves until the game is over
-		do { // TODO: Alpha-go uses policy net to choose weighted
-			moves = brd.getMoves();
+		do {
+			if (depth == playoutDepth && playoutDepth > 0) {
+				double[] score = evaluator.evaluate(brd);
+				playoutPolicy.playoutFinished(score);
+				return score;
+			}
+			depth++;
+			stats.playoutMoves++;
+			moves = brd.getMoves(random);
 			if (brd.getCurrentPlayer() >= 0) {
-		        // make random selection normally
+				// let the playout policy choose the move
 				if (moves.size() == 0) {
 					throw new IllegalStateException("No legal moves for player " + brd.getCurrentPlayer());
 				}
-				brd.makeMove(moves.get(random.nextInt(moves.size())));
+				brd.makeMove(playoutPolicy.select(brd, moves, random));
 		    }
 		    else {
 				// This situation only occurs when a move
@@ -313,7 +667,9 @@ public class MCTS {
 		}
         while (!brd.gameOver());
 
-		return brd.getScore();
+		double[] score = brd.getScore();
+		playoutPolicy.playoutFinished(score);
+		return score;
 	}
 
 	private Move getRandomMove(Board board, List<Move> moves) {
@@ -325,7 +681,7 @@ public class MCTS {
 		}
 
 		int randomIndex = -1;
-		double random = Math.random() * totalWeight;
+		double random = this.random.nextDouble() * totalWeight;
 		for (int i = 0; i < weights.length; ++i) {
 			random -= weights[i];
 			if (random <= 0.0d) {
@@ -338,38 +694,174 @@ public class MCTS {
 	}
 
 	/**
-	 * Produce a list of viable nodes to visit. The actual selection is done in runMCTS
+	 * Find the child with the highest upper confidence bound, choosing at random
+	 * between ties. Nodes searched to the end are only chosen if all of them are.
+	 * The statistics of the candidates are gathered into arrays so that the bounds
+	 * are computed in one pass by the {@link UcbKernel}.
+	 *
+	 * @return the child to visit, or null if every child is pruned or scores NaN
 	 */
-	private ArrayList<Node> findChildren(Node n, Board b) {
-		double bestValue = Double.NEGATIVE_INFINITY;
-		ArrayList<Node> bestNodes = new ArrayList<>();
+	private Node selectChild(Node n) {
+		List<Node> children = n.children;
+		ensureCandidateCapacity(children.size());
+		int count = 0;
 		boolean foundNotAtEnd = false;
-		for (Node s : n.children) {
+		for (int i = 0; i < children.size(); i++) {
+			Node s = children.get(i);
 			if (!s.pruned) {
 				// Only consider nodes searched to end if no other nodes have been searched to the end
-				if (!foundNotAtEnd || s.endScore == null) {
-					if (!foundNotAtEnd && s.endScore == null) {
-						// Reset search now that we've found a node that was NOT searched to the end
+				if (s.endScore == null) {
+					if (!foundNotAtEnd) {
+						// Restart now that we've found a node that was NOT searched to the end
 						foundNotAtEnd = true;
-						bestValue = Double.NEGATIVE_INFINITY;
-//						bestNodes.clear(); // This is unnecessary given clear below
-					}
-					double tempBest = s.upperConfidenceBound(explorationConstant);
-
-					if (tempBest > bestValue) {
-						// If we found a better node
-						bestNodes.clear();
-						bestNodes.add(s);
-						bestValue = tempBest;
-					} else if (tempBest == bestValue) {
-						// If we found an equal node
-						bestNodes.add(s);
+						count = 0;
 					}
+				} else if (foundNotAtEnd) {
+					continue;
+				}
+				candidates[count] = s;
+				candidateScores[count] = s.getScore(n.player);
+				candidateGames[count] = s.games;
+				count++;
+			}
+		}
+		ucbKernel.compute(candidateScores, candidateGames, count, Math.log(n.games + 1), explorationConstant,
+				candidateBounds);
+		return bestCandidate(count);
+	}
+
+	/**
+	 * Selects among the children of n whose moves are legal on the board, which holds one
+	 * sample of the information set of n. Legal moves without a child get one first. Each
+	 * bound counts the visits of n in which its child was available, instead of all the
+	 * visits of n, so moves that are rarely legal are not explored too much.
+	 */
+	private Node selectAvailableChild(Board b, Node n) {
+		List<Move> moves = b.getMoves(random);
+		if (n.children == null) {
+			n.children = new ArrayList<>(moves.size());
+		}
+		ensureCandidateCapacity(moves.size());
+		childrenByMove.clear();
+		for (int i = 0; i < n.children.size(); i++) {
+			Node child = n.children.get(i);
+			childrenByMove.put(child.move, child);
+		}
+		int existing = n.children.size();
+		long startBytes = 0;
+		long start = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			Move move = moves.get(i);
+			Node child = childrenByMove.get(move);
+			if (child == null) {
+				if (n.children.size() == existing) {
+					startBytes = allocatedBytes();
+					start = System.nanoTime();
 				}
+				child = n.addChild(b, move);
+			}
+			candidates[i] = child;
+		}
+		childrenByMove.clear();
+		if (n.children.size() > existing) {
+			if (heuristic != null) {
+				applyHeuristic(b, n.children.subList(existing, n.children.size()));
 			}
+			stats.nodesCreated += n.children.size() - existing;
+			recordExpansion(start, startBytes);
+		}
+		int count = moves.size();
+		for (int i = 0; i < count; i++) {
+			Node child = candidates[i];
+			child.availability++;
+			candidateScores[i] = child.getScore(n.player);
+			candidateGames[i] = child.games;
+			ScalarUcbKernel.compute(candidateScores, candidateGames, i, i + 1, Math.log(child.availability),
+					explorationConstant, candidateBounds);
+		}
+		return bestCandidate(count);
+	}
+
+	private void ensureCandidateCapacity(int size) {
+		if (candidates.length < size) {
+			int capacity = Math.max(size, 2 * candidates.length);
+			candidates = new Node[capacity];
+			candidateScores = new double[capacity];
+			candidateGames = new double[capacity];
+			candidateBounds = new double[capacity];
+		}
+	}
+
+	/**
+	 * @return the candidate with the highest bound, choosing at random between equal bounds
+	 */
+	private Node bestCandidate(int count) {
+		double bestValue = Double.NEGATIVE_INFINITY;
+		Node best = null;
+		int ties = 0;
+		for (int i = 0; i < count; i++) {
+			double tempBest = candidateBounds[i];
+			if (tempBest > bestValue) {
+				// If we found a better node
+				best = candidates[i];
+				bestValue = tempBest;
+				ties = 1;
+			} else if (tempBest == bestValue && random.nextInt(++ties) == 0) {
+				// If we found an equal node, keep it with chance 1/ties so
+				// that each of the equal nodes is equally likely
+				best = candidates[i];
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Measures the bytes allocated in each phase of every iteration, which SearchStats
+	 * then reports. This reads the allocation counter of the thread four or five times
+	 * per iteration, so it is off by default.
+	 *
+	 * @throws UnsupportedOperationException if the JVM cannot count allocated bytes per thread
+	 */
+	public void setAllocationTracking(boolean track) {
+		if (!track) {
+			allocationCounter = null;
+			return;
+		}
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean) ||
+				!((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			throw new UnsupportedOperationException("This JVM does not count allocated bytes per thread");
 		}
+		allocationCounter = (com.sun.management.ThreadMXBean) bean;
+		allocationCounter.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private long allocatedBytes() {
+		return allocationCounter == null ? 0L : allocationCounter.getCurrentThreadAllocatedBytes();
+	}
 
-		return bestNodes;
+	/**
+	 * Reseeds the random number generator used for tie breaks, playouts and chance
+	 * nodes. Searches from the same seed, position and budget are repeatable, as long as
+	 * the game and the playout policy draw all their random numbers from it too.
+	 */
+	public void setSeed(long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Replaces the random number generator used for tie breaks, playouts and chance
+	 * nodes. The generator is used by the searching thread alone. Give each engine of a
+	 * multi-threaded program its own stream, for example by splitting one
+	 * {@link SplittableRandom} seeded from a master seed, so that the engines neither
+	 * contend for one generator nor lose repeatability.
+	 */
+	public void setRandomGenerator(RandomGenerator random) {
+		if (random == null) {
+			throw new IllegalArgumentException("random must not be null");
+		}
+		this.random = random;
 	}
 
 	/**
@@ -381,10 +873,159 @@ public class MCTS {
 		explorationConstant = exp;
 	}
 
+	/**
+	 * Returns the statistics of the most recent search. During a search, this is the
+	 * search in progress.
+	 */
+	public SearchStats getSearchStats() {
+		return stats;
+	}
+
 	public void setHeuristicFunction(HeuristicFunction h) {
 		heuristic = h;
 	}
 
+	/**
+	 * Makes new trees keep a single float for the score of player 0 and an int visit
+	 * count in each node, instead of a score per player. Only two-player games whose
+	 * scores sum to 1, such as Connect Four, suit this. It saves about a quarter of the
+	 * memory of a tree. Off by default.
+	 */
+	public void setCompactStatistics(boolean compact) {
+		compactStatistics = compact;
+	}
+
+	/**
+	 * Expands a leaf only once it has been visited the given number of times, not
+	 * counting the games credited by the heuristic. Until then, iterations that reach
+	 * it play out from the leaf itself. Each expansion adds all the children of a node,
+	 * so a threshold of a few visits shrinks the tree many times over, which keeps long
+	 * searches clear of the low memory threshold. The root is always expanded. Default
+	 * is 0, which expands a leaf the first time it is reached.
+	 */
+	public void setExpansionThreshold(int visits) {
+		if (visits < 0) {
+			throw new IllegalArgumentException("visits must not be negative, was " + visits);
+		}
+		expansionThreshold = visits;
+	}
+
+	public int getExpansionThreshold() {
+		return expansionThreshold;
+	}
+
+	/**
+	 * Makes searches sample the outcome of each chance node, with
+	 * {@link Board#sampleChanceMove}, instead of expanding a fixed set of outcomes. All
+	 * outcomes lead to one shared node, so the tree below a chance node is a tree of
+	 * information sets: its nodes stand for a move sequence, whose legality depends on
+	 * the outcomes sampled in each iteration. Selection only considers the moves legal in
+	 * the current sample. Suits games such as Azul, whose hidden draws have far too many
+	 * outcomes to expand. The solver does not prove results that depend on a sample.
+	 * Off by default.
+	 */
+	public void setInformationSetSearch(boolean informationSets) {
+		this.informationSets = informationSets;
+	}
+
+	/**
+	 * Creates the children of chance nodes below the root lazily, as their outcomes are
+	 * sampled with {@link Board#sampleChanceMove}, and only while a node has fewer than
+	 * constant * visits^exponent children. Once a node is that wide, iterations follow
+	 * one of its existing outcomes instead, in proportion to their visits. Games with many
+	 * outcomes per chance node, such as 2048, keep the fan-out of the tree in check this
+	 * way. Typical values are 1 and 0.5. A constant of 0, the default, expands every
+	 * outcome.
+	 */
+	public void setChanceWidening(double constant, double exponent) {
+		if (constant < 0 || exponent < 0 || exponent > 1) {
+			throw new IllegalArgumentException("Invalid widening " + constant + " * visits^" + exponent);
+		}
+		wideningConstant = constant;
+		wideningExponent = exponent;
+	}
+
+	/**
+	 * Gives the moves of a regular player that lead to symmetric positions, as told by
+	 * {@link Board#getCanonicalHash()}, a single child. Symmetric positions have the same
+	 * value, so searching one of them is enough, and trees of games with many symmetric
+	 * positions, like TicTacToe, shrink several times over. Outcomes of chance nodes are
+	 * not merged, because they have weights. Off by default.
+	 */
+	public void setSymmetryMerging(boolean merge) {
+		symmetryMerging = merge;
+	}
+
+	/**
+	 * Remembers the end scores of up to capacity solved positions by canonical hash, and
+	 * solves new children found among them at once. The cache is kept between searches,
+	 * so later moves of a game benefit from it, and symmetric positions share entries.
+	 * Only suits games whose hash covers everything that decides the result. 0, the
+	 * default, turns it off. At most {@link #MAX_SOLVED_POSITIONS}.
+	 */
+	public void setSolvedPositionCache(int capacity) {
+		if (capacity < 0 || capacity > MAX_SOLVED_POSITIONS) {
+			throw new IllegalArgumentException("capacity must be in range 0-" + MAX_SOLVED_POSITIONS + ", was " + capacity);
+		}
+		solvedCache = capacity == 0 ? null : new SolvedPositionCache(capacity);
+	}
+
+	/**
+	 * Sets how many games the heuristic value of a new node is worth. Higher values
+	 * trust the heuristic for longer before playouts take over. Default is
+	 * {@link #GAMES_SIMULATED_BY_HEURISTIC}
+	 */
+	public void setGamesSimulatedByHeuristic(int games) {
+		if (games < 1) {
+			throw new IllegalArgumentException("games must be positive, was " + games);
+		}
+		gamesSimulatedByHeuristic = games;
+	}
+
+	public int getGamesSimulatedByHeuristic() {
+		return gamesSimulatedByHeuristic;
+	}
+
+	/**
+	 * Sets the policy that chooses moves for regular players during playouts.
+	 * Default is {@link UniformPlayoutPolicy}.
+	 */
+	public void setPlayoutPolicy(PlayoutPolicy policy) {
+		playoutPolicy = policy;
+	}
+
+	/**
+	 * Stops playouts after the given number of moves and scores the resulting
+	 * board with the evaluator instead of playing to the end of the game.
+	 * Long games such as Azul complete many more iterations this way.
+	 *
+	 * @param depth     moves per playout before cutting off. 0 disables the cutoff
+	 * @param evaluator scores the boards of truncated playouts
+	 */
+	public void setPlayoutCutoff(int depth, EvaluationFunction evaluator) {
+		if (depth > 0 && evaluator == null) {
+			throw new IllegalArgumentException("An evaluator is required for playout depth " + depth);
+		}
+		this.playoutDepth = depth;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Logs the outcome of each search made by runMctsAndGetBestNode. Logging is off
+	 * by default. Pass null to turn it off again.
+	 */
+	public void setTreeLogger(TreeLogger treeLogger) {
+		this.treeLogger = treeLogger;
+	}
+
+	/**
+	 * Plays moves from the book, without searching, in positions it covers. Pass null to
+	 * search every position again.
+	 */
+	public void setOpeningBook(OpeningBook openingBook) {
+		this.openingBook = openingBook;
+	}
+
 	public void setTimeDisplay(boolean displayTime) {
 		this.trackTime = displayTime;
 	}
@@ -2,8 +2,8 @@ package main;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * This type of node does not store the board, so that makeMove() must be called to
@@ -11,21 +11,47 @@ import java.util.List;
  * nodes, which likely constitute a majority of the nodes) does not exist.
  */
 public class Node implements Comparable<Node> {
+	/**
+	 * Total score of each player, or null in compact mode, where value holds the
+	 * total score of player 0 and player 1's total is games - value.
+	 */
 	public double[] score;
-	public double games; // double outperforms int slightly
+	float value;
+	public int games;
 	public Move move;
 	public ArrayList<Node> children;
 	public Node parent;
 	public int player;
 	public boolean pruned;
 	public double[] endScore = null;
+	int solvedChildren; // children with an endScore
+	Node bestSolvedChild; // the child with the best endScore for player. Unused at chance nodes
+	int availability; // visits of the parent in which the move was legal. Only counted in information sets
 
 	/**
 	 * This creates the root node
 	 */
 	public Node(Board b) {
+		this(b, false);
+	}
+
+	/**
+	 * This creates the root node, optionally in compact mode. Compact nodes store a
+	 * single float and an int instead of a score per player, which only works for
+	 * two-player games whose scores always sum to 1. Floats count whole and half
+	 * points exactly up to about 8 million games. Children inherit the mode.
+	 * <p>
+	 * Both layouts share this class, so a compact node still carries a null score
+	 * reference and other nodes an unused float. Dropping the score array takes a
+	 * Connect Four node, children list included, from about 113 to 84 bytes, a
+	 * saving of about a quarter, not half.
+	 */
+	public Node(Board b, boolean compact) {
+		if (compact && b.getQuantityOfPlayers() != 2) {
+			throw new IllegalArgumentException("Compact statistics need a two-player game, not " + b.getQuantityOfPlayers() + " players.");
+		}
 		player = b.getCurrentPlayer();
-		score = new double[b.getQuantityOfPlayers()];
+		score = compact ? null : new double[b.getQuantityOfPlayers()];
 	}
 
 	/**
@@ -35,62 +61,85 @@ public class Node implements Comparable<Node> {
 		this.parent = parent;
 		this.move = move;
 		player = b.getNextPlayer(move);
-		score = new double[b.getQuantityOfPlayers()];
+		score = parent.score == null ? null : new double[b.getQuantityOfPlayers()];
 	}
 
 	/**
-	 * Return the upper confidence bound of this state
-	 *
-	 * @param c typically sqrt(2). Increase to emphasize exploration. Decrease
-	 *          to increment exploitation
+	 * This creates nodes read from a file. The caller fills in the rest of the fields.
 	 */
-	double upperConfidenceBound(double c) {
-		double score = this.score[parent.player];
-		double exploitation = safeDivision(score, games);
-		double exploration = c * Math.sqrt(safeDivision(Math.log(parent.games + 1), games));
-		return exploitation + exploration;
+	Node(Node parent, int player, int players, boolean compact) {
+		this.parent = parent;
+		this.player = player;
+		score = compact ? null : new double[players];
 	}
 
-	private double safeDivision(double numerator, double denominator) {
-		return games == 0 ? numerator == 0 ? 1.0 : Double.POSITIVE_INFINITY : numerator / denominator;
+	/**
+	 * Returns true if this node keeps a single value instead of a score per player.
+	 */
+	public boolean isCompact() {
+		return score == null;
 	}
 
 	/**
-	 * Update the tree with the new score.
+	 * Returns the total score of the given player over all games through this node.
 	 */
-	void backPropagateScore(double[] score, boolean prune) {
-		games++;
-		for (int i = 0; i < score.length; i++) {
-			this.score[i] += score[i];
+	public double getScore(int player) {
+		if (score != null) {
+			return score[player];
 		}
+		return player == 0 ? value : games - value;
+	}
 
-		if (prune && children != null) {
-			boolean allPlayedToEnd = true;
-			Node bestChild = null;
-			double bestScore = -1.0;
-			for (Iterator<Node> iterator = children.iterator(); bestScore != 1.0 && iterator.hasNext(); ) {
-				Node child = iterator.next();
-				allPlayedToEnd = allPlayedToEnd && child.endScore != null;
-				if (child.endScore != null && child.endScore[player] > bestScore) {
-					bestScore = child.endScore[player];
-					bestChild = child;
-				}
-			}
-			if (bestScore == 1.0 || allPlayedToEnd) {
-				pruneAllBut(bestChild);
+	/**
+	 * Returns a copy of the total score of every player.
+	 */
+	public double[] getScores() {
+		if (score != null) {
+			return score.clone();
+		}
+		return new double[] {value, games - value};
+	}
+
+	/**
+	 * Update this node and its ancestors with the new score.
+	 */
+	void backPropagateScore(double[] score, boolean prune) {
+		for (Node node = this; node != null; node = node.parent) {
+			node.games++;
+			if (node.score == null) {
+				node.value += (float) score[0];
+			} else {
 				for (int i = 0; i < score.length; i++) {
-					this.score[i] = score[i] * games;
+					node.score[i] += score[i];
 				}
 			}
-			else {
-				// No point pruning at parent level if no pruning done at child
+
+			if (prune && node.player < 0) {
+				// A chance node has no best child, so solving stops here
 				prune = false;
+			} else if (prune && node.children != null) {
+				// The counters only change when a child is solved, so this costs
+				// nothing more per level than checking them
+				Node bestChild = node.bestSolvedChild;
+				if (node.endScore == null && bestChild != null &&
+						(bestChild.endScore[node.player] == 1.0 || node.solvedChildren == node.children.size())) {
+					node.pruneAllBut(bestChild);
+				}
+				if (node.endScore != null) {
+					if (node.score == null) {
+						node.value = (float) (score[0] * node.games);
+					} else {
+						for (int i = 0; i < score.length; i++) {
+							node.score[i] = score[i] * node.games;
+						}
+					}
+				}
+				else {
+					// No point pruning at parent level if no pruning done at child
+					prune = false;
+				}
 			}
 		}
-
-		if (parent != null) {
-			parent.backPropagateScore(score, prune);
-		}
 	}
 
 	/**
@@ -100,7 +149,8 @@ public class Node implements Comparable<Node> {
 	 * @param node the child that is best play for current player
 	 */
 	private void pruneAllBut(Node node) {
-		for (Node child : children) {
+		for (int i = 0; i < children.size(); i++) {
+			Node child = children.get(i);
 			if (child != node) {
 				child.pruned = true;
 				// Leads to NPE when child of bg tree becomes fg tree
@@ -108,24 +158,59 @@ public class Node implements Comparable<Node> {
 			}
 		}
 		assert node.endScore != null;
-		endScore = node.endScore;
+		setEndScore(node.endScore);
+	}
+
+	/**
+	 * Marks this node as played to the end and updates the solver counters of its parent.
+	 * Call at most once per node.
+	 */
+	void setEndScore(double[] endScore) {
+		assert this.endScore == null;
+		this.endScore = endScore;
+		if (parent != null) {
+			parent.solvedChildren++;
+			int p = parent.player;
+			if (p >= 0 && (parent.bestSolvedChild == null || endScore[p] > parent.bestSolvedChild.endScore[p])) {
+				parent.bestSolvedChild = this;
+			}
+		}
 	}
 
 	/**
 	 * Expand this node by populating its list of unvisited child nodes.
 	 */
-	void expandNode(Board currentBoard) {
-		List<Move> legalMoves = currentBoard.getMoves();
+	void expandNode(Board currentBoard, RandomGenerator random) {
+		List<Move> legalMoves = currentBoard.getMoves(random);
 		children = new ArrayList<>();
 		for (Move legalMove : legalMoves) {
 			children.add(new Node(currentBoard, legalMove, this));
 		}
 	}
 
+	/**
+	 * Adds a child for a move after which the given player is to move.
+	 */
+	Node addChild(Move move, int player) {
+		Node child = new Node(this, player, score == null ? 2 : score.length, score == null);
+		child.move = move;
+		children.add(child);
+		return child;
+	}
+
+	/**
+	 * Adds a child for a move that is legal on the board, which must be at this node.
+	 */
+	Node addChild(Board currentBoard, Move move) {
+		Node child = new Node(currentBoard, move, this);
+		children.add(child);
+		return child;
+	}
+
 	/**
 	 * Select a child node at random and return it.
 	 */
-	int randomSelect(Board board) {
+	int randomSelect(Board board, RandomGenerator r) {
 		double[] weights = board.getMoveWeights();
 
 		double totalWeight = 0.0d;
@@ -134,7 +219,7 @@ public class Node implements Comparable<Node> {
 		}
 
 		int randomIndex = -1;
-		double random = Math.random() * totalWeight;
+		double random = r.nextDouble() * totalWeight;
 		for (int i = 0; i < weights.length; ++i) {
 			random -= weights[i];
 			if (random <= 0.0d) {
@@ -154,16 +239,17 @@ public class Node implements Comparable<Node> {
 	@Override
 	public String toString() {
 		String result;
-		String[] scoreStrings = new String[score.length];
-		for (int i = 0; i < score.length; i++) {
-			scoreStrings[i] = String.valueOf(score[i]);
+		double[] scores = getScores();
+		String[] scoreStrings = new String[scores.length];
+		for (int i = 0; i < scores.length; i++) {
+			scoreStrings[i] = String.valueOf(scores[i]);
 		}
 		if (parent == null) {
 			result = "ROOT";
 		} else if (parent.player < 0) {
 			result = "" + move + " " + String.join(", ", scoreStrings);
 		} else {
-			result = "" + move + " " + String.join(", ", scoreStrings) + " " + parent.player + " wins " + (int) (score[parent.player] * 100 / games) + "% of " + games;
+			result = "" + move + " " + String.join(", ", scoreStrings) + " " + parent.player + " wins " + (int) (scores[parent.player] * 100 / games) + "% of " + games;
 		}
 		if (endScore != null) {
 			result = result + " end score" + Arrays.toString(endScore);
@@ -175,12 +261,23 @@ public class Node implements Comparable<Node> {
 	}
 
 	public Node makeRootNode(Move move) {
+		RerootEvent event = new RerootEvent();
+		event.begin();
+		Node root = null;
 		for (Node n : children) {
 			if (move.equals(n.move)) {
 				n.parent = null;
-				return n;
+				root = n;
+				break;
 			}
 		}
-		return null;
+		if (event.shouldCommit()) {
+			event.move = String.valueOf(move);
+			event.found = root != null;
+			event.oldRootGames = games;
+			event.newRootGames = root == null ? 0.0 : root.games;
+			event.commit();
+		}
+		return root;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package main;
+
+import main.support.MoveCodec;
+
+import java.io.IOException;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only book of searched positions, built by {@link OpeningBookBuilder}. Pass it to
+ * {@link MCTS#setOpeningBook(OpeningBook)} and the engine plays book moves without searching.
+ * <p>
+ * The file is memory-mapped. After a header (magic number, version and entry count) comes an
+ * index of (position hash, data offset) pairs sorted by hash, which is binary searched in
+ * place. The data of each entry is the number of moves followed by each move and its visit
+ * count, most visited first. All values are big-endian.
+ */
+public class OpeningBook {
+
+	static final int MAGIC = 0x424F4F4B; // "BOOK"
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 4 + 2 + 4;
+	static final int INDEX_ENTRY_SIZE = 8 + 8;
+
+	private final ByteBuffer buffer;
+	private final MoveCodec codec;
+	private final int size;
+
+	private OpeningBook(ByteBuffer buffer, MoveCodec codec) throws IOException {
+		this.buffer = buffer;
+		this.codec = codec;
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not an opening book");
+		}
+		short version = buffer.getShort(4);
+		if (version != VERSION) {
+			throw new IOException("Unsupported opening book version " + version);
+		}
+		size = buffer.getInt(6);
+	}
+
+	/**
+	 * Maps a book file written by {@link OpeningBookBuilder#write(File)}.
+	 *
+	 * @param codec decodes the moves of the game the book was built for
+	 */
+	public static OpeningBook open(File file, MoveCodec codec) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// The mapping remains valid after the channel is closed
+			return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), codec);
+		}
+	}
+
+	/**
+	 * @return the number of positions in the book
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the most visited move for this board, or null if the position is not in the book
+	 */
+	public Move getBestMove(Board board) {
+		Entry entry = lookup(board);
+		return entry == null ? null : entry.getMoves()[0];
+	}
+
+	/**
+	 * @return the moves and visit counts for this board, or null if the position is not in the book
+	 */
+	public Entry lookup(Board board) {
+		long hash = board.getPositionHash();
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int index = HEADER_SIZE + mid * INDEX_ENTRY_SIZE;
+			long midHash = buffer.getLong(index);
+			if (midHash < hash) {
+				low = mid + 1;
+			} else if (midHash > hash) {
+				high = mid - 1;
+			} else {
+				return readEntry((int) buffer.getLong(index + 8));
+			}
+		}
+		return null;
+	}
+
+	private Entry readEntry(int offset) {
+		// Each lookup uses its own view, so that lookups can run on several threads
+		ByteBuffer in = buffer.duplicate();
+		in.position(offset);
+		int count = in.getShort();
+		Move[] moves = new Move[count];
+		int[] visits = new int[count];
+		for (int i = 0; i < count; i++) {
+			moves[i] = codec.decode(in);
+			visits[i] = in.getInt();
+		}
+		return new Entry(moves, visits);
+	}
+
+	/**
+	 * The moves searched from one position, most visited first.
+	 */
+	public static class Entry {
+		private final Move[] moves;
+		private final int[] visits;
+
+		Entry(Move[] moves, int[] visits) {
+			this.moves = moves;
+			this.visits = visits;
+		}
+
+		public Move[] getMoves() {
+			return moves;
+		}
+
+		public int[] getVisits() {
+			return visits;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package main;
+
+import main.support.MoveCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds an {@link OpeningBook} by searching every position reached in the first plies of a
+ * game. This is meant to run offline with a budget far larger than a game allows.
+ * <p>
+ * From each position the builder follows the most visited moves of the search, up to the
+ * branching limit. A branching limit of Integer.MAX_VALUE covers every legal move, which is
+ * practical for Connect Four. Wide games such as the Dylanean Chess setup phase are covered
+ * along the principal lines with a small limit. Transpositions are searched only once.
+ */
+public class OpeningBookBuilder {
+
+	private final MCTS mcts;
+	private final MoveCodec codec;
+	private final Map<Long, byte[]> entries = new TreeMap<>(); // sorted by hash, as the index must be
+
+	/**
+	 * @param mcts  the engine used for the searches
+	 * @param codec encodes the moves of the game
+	 */
+	public OpeningBookBuilder(MCTS mcts, MoveCodec codec) {
+		this.mcts = mcts;
+		this.codec = codec;
+	}
+
+	/**
+	 * Searches positions reachable from the start and adds them to the book.
+	 *
+	 * @param start     the starting position
+	 * @param plies     the number of moves from the start to cover
+	 * @param branching the number of most visited moves followed from each position
+	 * @param runs      iterations per search. Ignored if 0
+	 * @param maxTime   time (in ms) per search. Ignored unless runs == 0
+	 */
+	public void add(Board start, int plies, int branching, int runs, long maxTime) throws IOException {
+		if (plies <= 0 || start.gameOver() || start.getCurrentPlayer() < 0) {
+			return;
+		}
+		long hash = start.getPositionHash();
+		if (entries.containsKey(hash)) {
+			return;
+		}
+		Node root = mcts.runMCTS(start, runs, maxTime, mcts.newRootNode(start));
+		List<Node> children = new ArrayList<>(root.children);
+		children.removeIf(child -> child.pruned);
+		children.sort(Comparator.comparingInt((Node child) -> child.games).reversed());
+		entries.put(hash, encode(children));
+		System.out.println("Book position " + entries.size() + ": " + children.get(0).move +
+				" after " + mcts.getSearchStats().getIterations() + " runs");
+
+		for (int i = 0; i < children.size() && i < branching; i++) {
+			Board next = start.duplicate();
+			next.makeMove(children.get(i).move);
+			add(next, plies - 1, branching, runs, maxTime);
+		}
+	}
+
+	/**
+	 * @return the number of positions added so far
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private byte[] encode(List<Node> children) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeShort(children.size());
+		for (Node child : children) {
+			codec.encode(child.move, out);
+			out.writeInt(child.games);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes the book, overwriting the file.
+	 */
+	public void write(File file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeShort(OpeningBook.VERSION);
+			out.writeInt(entries.size());
+			long offset = OpeningBook.HEADER_SIZE + (long) entries.size() * OpeningBook.INDEX_ENTRY_SIZE;
+			for (Map.Entry<Long, byte[]> entry : entries.entrySet()) {
+				out.writeLong(entry.getKey());
+				out.writeLong(offset);
+				offset += entry.getValue().length;
+			}
+			for (byte[] data : entries.values()) {
+				out.write(data);
+			}
+		}
+	}
+}
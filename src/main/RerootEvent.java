@@ -0,0 +1,25 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event emitted when the subtree of a played move becomes the new root.
+ */
+@Name("mcts.Reroot")
+@Label("MCTS Tree Re-rooting")
+@Category("MCTS")
+class RerootEvent extends jdk.jfr.Event {
+	@Label("Move")
+	String move;
+
+	@Label("Found")
+	boolean found;
+
+	@Label("Old Root Games")
+	double oldRootGames;
+
+	@Label("New Root Games")
+	double newRootGames;
+}
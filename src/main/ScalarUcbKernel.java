@@ -0,0 +1,34 @@
+package main;
+
+/**
+ * Computes the bounds one child at a time.
+ */
+class ScalarUcbKernel implements UcbKernel {
+
+	@Override
+	public void compute(double[] scores, double[] games, int count, double log, double c, double[] values) {
+		compute(scores, games, 0, count, log, c, values);
+	}
+
+	/**
+	 * Computes the bounds of children from (inclusive) to to (exclusive). The vectorized
+	 * kernel uses this for the children left over after its last full vector.
+	 */
+	static void compute(double[] scores, double[] games, int from, int to, double log, double c, double[] values) {
+		double unvisitedExploration = log == 0 ? 1.0 : Double.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			double g = games[i];
+			double s = scores[i];
+			double exploitation;
+			double exploration;
+			if (g == 0) {
+				exploitation = s == 0 ? 1.0 : Double.POSITIVE_INFINITY;
+				exploration = unvisitedExploration;
+			} else {
+				exploitation = s / g;
+				exploration = log / g;
+			}
+			values[i] = exploitation + c * Math.sqrt(exploration);
+		}
+	}
+}
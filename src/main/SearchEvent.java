@@ -0,0 +1,36 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event covering one call to {@link MCTS#runMCTS(Board, int, long, Node) runMCTS}.
+ */
+@Name("mcts.Search")
+@Label("MCTS Search")
+@Category("MCTS")
+@Description("One search from a root position")
+class SearchEvent extends jdk.jfr.Event {
+	@Label("Root Player")
+	int rootPlayer;
+
+	@Label("Run Budget")
+	@Description("Iterations allowed, or 0 if the search is limited by time")
+	int runBudget;
+
+	@Label("Time Budget")
+	@Timespan(Timespan.MILLISECONDS)
+	long timeBudget;
+
+	@Label("Iterations")
+	long iterations;
+
+	@Label("Nodes Created")
+	long nodesCreated;
+
+	@Label("Stop Reason")
+	String stopReason;
+}
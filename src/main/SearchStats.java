@@ -0,0 +1,207 @@
+package main;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Telemetry for one call to {@link MCTS#runMCTS(Board, int, long, Node) runMCTS}. The counters
+ * are plain fields updated by the searching thread, and cost a few System.nanoTime() calls per
+ * iteration, so they are always on. Read them with {@link MCTS#getSearchStats()} once the
+ * search has returned.
+ */
+public class SearchStats {
+	/**
+	 * Why a search stopped
+	 */
+	public enum StopReason {
+		/** The root had only one move */
+		SINGLE_CHOICE,
+		/** The result of perfect play from the root is known */
+		SOLVED,
+		/** The iteration budget was used */
+		RUNS,
+		/** The time budget was used */
+		TIME,
+		/** The heap is nearly full */
+		LOW_MEMORY,
+		/** Completion was requested by another thread */
+		REQUESTED,
+		/** The move was found in the opening book, without searching */
+		BOOK
+	}
+
+	StopReason stopReason;
+	long iterations;
+	long nodesCreated;
+	WeakReference<Node> root; // counted on demand. Weak, so that the stats do not keep the tree alive
+	private long nodesAlive = -1; // -1 until counted
+	int maxSelectionDepth;
+	long totalSelectionDepth;
+	long playouts;
+	long playoutMoves;
+	long treePolicyNanos;
+	long expansionNanos;
+	long playoutNanos;
+	long backPropagationNanos;
+	long elapsedNanos;
+	boolean allocationTracked;
+	long treePolicyBytes;
+	long expansionBytes;
+	long playoutBytes;
+	long backPropagationBytes;
+
+	public StopReason getStopReason() {
+		return stopReason;
+	}
+
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the number of nodes added to the tree by expansion during this search
+	 */
+	public long getNodesCreated() {
+		return nodesCreated;
+	}
+
+	/**
+	 * Counts the nodes reachable from the root, including nodes kept from earlier searches.
+	 * This walks the whole tree, so it is done only when first asked for, and reflects the
+	 * tree at that time.
+	 *
+	 * @return the number of nodes in the tree, or 0 if the tree has been discarded
+	 */
+	public long getNodesAlive() {
+		if (nodesAlive < 0) {
+			Node node = root == null ? null : root.get();
+			nodesAlive = node == null ? 0 : countNodes(node);
+		}
+		return nodesAlive;
+	}
+
+	/**
+	 * @return the greatest number of moves made by the tree policy in a single iteration
+	 */
+	public int getMaxSelectionDepth() {
+		return maxSelectionDepth;
+	}
+
+	public double getMeanSelectionDepth() {
+		return iterations == 0 ? 0.0 : (double) totalSelectionDepth / iterations;
+	}
+
+	/**
+	 * @return the mean number of moves per playout. Iterations that reached the end
+	 * of the game in the tree do not run a playout and are not counted.
+	 */
+	public double getMeanPlayoutLength() {
+		return playouts == 0 ? 0.0 : (double) playoutMoves / playouts;
+	}
+
+	/**
+	 * @return time spent selecting nodes, excluding expansion
+	 */
+	public long getTreePolicyNanos() {
+		return treePolicyNanos;
+	}
+
+	/**
+	 * @return time spent expanding nodes, including the heuristic function
+	 */
+	public long getExpansionNanos() {
+		return expansionNanos;
+	}
+
+	public long getPlayoutNanos() {
+		return playoutNanos;
+	}
+
+	public long getBackPropagationNanos() {
+		return backPropagationNanos;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return true if the bytes allocated in each phase were measured. See
+	 * {@link MCTS#setAllocationTracking(boolean)}
+	 */
+	public boolean isAllocationTracked() {
+		return allocationTracked;
+	}
+
+	/**
+	 * @return bytes allocated selecting nodes, excluding expansion
+	 */
+	public long getTreePolicyBytes() {
+		return treePolicyBytes;
+	}
+
+	/**
+	 * @return bytes allocated expanding nodes, including the new nodes themselves
+	 */
+	public long getExpansionBytes() {
+		return expansionBytes;
+	}
+
+	public long getPlayoutBytes() {
+		return playoutBytes;
+	}
+
+	public long getBackPropagationBytes() {
+		return backPropagationBytes;
+	}
+
+	/**
+	 * @return bytes allocated per iteration over all phases, or 0 unless allocation is tracked
+	 */
+	public double getBytesPerIteration() {
+		return iterations == 0 ? 0.0 :
+				(double) (treePolicyBytes + expansionBytes + playoutBytes + backPropagationBytes) / iterations;
+	}
+
+	public double getIterationsPerSecond() {
+		return elapsedNanos == 0 ? 0.0 : iterations * 1e9 / elapsedNanos;
+	}
+
+	private static long countNodes(Node root) {
+		long count = 0;
+		Deque<Node> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Node node = stack.pop();
+			count++;
+			if (node.children != null) {
+				for (Node child : node.children) {
+					stack.push(child);
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "" + iterations + " runs until " + stopReason + " in " + elapsedNanos / 1_000_000 + " ms (" +
+				(long) getIterationsPerSecond() + "/s), nodes created " + nodesCreated +
+				", alive " + getNodesAlive() +
+				", selection depth max " + maxSelectionDepth +
+				" mean " + String.format("%.1f", getMeanSelectionDepth()) +
+				", playout length " + String.format("%.1f", getMeanPlayoutLength()) +
+				", ms in tree policy " + treePolicyNanos / 1_000_000 +
+				" expansion " + expansionNanos / 1_000_000 +
+				" playout " + playoutNanos / 1_000_000 +
+				" back propagation " + backPropagationNanos / 1_000_000 +
+				(allocationTracked && iterations > 0
+						? ", bytes per iteration " + (long) getBytesPerIteration() +
+						" in tree policy " + treePolicyBytes / iterations +
+						" expansion " + expansionBytes / iterations +
+						" playout " + playoutBytes / iterations +
+						" back propagation " + backPropagationBytes / iterations
+						: "");
+	}
+}
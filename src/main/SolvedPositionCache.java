@@ -0,0 +1,48 @@
+package main;
+
+/**
+ * Remembers the end scores of solved positions by their canonical hash, so that a
+ * position solved once, or any position symmetric to it, is known as soon as it is
+ * reached again, also in later searches. The table has a fixed number of slots and a
+ * new entry replaces the one in its slot.
+ */
+class SolvedPositionCache {
+
+	static final int MAX_CAPACITY = 1 << 30;
+
+	private final long[] hashes;
+	private final double[][] endScores;
+	private final int mask;
+
+	/**
+	 * @param capacity the number of slots, from 1 to MAX_CAPACITY, rounded up to a power of two
+	 */
+	SolvedPositionCache(int capacity) {
+		if (capacity < 1 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("capacity must be in range 1-" + MAX_CAPACITY + ", was " + capacity);
+		}
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		hashes = new long[size];
+		endScores = new double[size][];
+		mask = size - 1;
+	}
+
+	/**
+	 * @return the end score of the position, or null if it is not in the cache
+	 */
+	double[] get(long hash) {
+		int i = index(hash);
+		return endScores[i] != null && hashes[i] == hash ? endScores[i] : null;
+	}
+
+	void put(long hash, double[] endScore) {
+		int i = index(hash);
+		hashes[i] = hash;
+		endScores[i] = endScore;
+	}
+
+	private int index(long hash) {
+		// Fibonacci hashing, as canonical hashes need not spread their low bits
+		return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+}
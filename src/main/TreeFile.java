@@ -0,0 +1,218 @@
+package main;
+
+import main.support.MoveCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+/**
+ * Saves search trees in a compact binary format and loads them back, so that an expensive
+ * analysis can be kept and used to warm-start later searches. Pass the loaded root to
+ * {@link MCTS#runMctsAndGetBestNode(Board, int, long, Node) runMctsAndGetBestNode} together
+ * with the board it was searched from.
+ * <p>
+ * After a header (magic number, version, number of players and a byte that is 1 for compact
+ * trees) the nodes follow in preorder. Each node is a flags byte (has move, pruned, has end
+ * score, expanded, has availability), the player, games as an int, the score vector (or the
+ * float value of a compact node), the end score vector if any, the availability count of an
+ * information set search as an int if it is not 0, the move if any and, if expanded, the
+ * number of children. All values are big-endian.
+ * <p>
+ * Loading streams the whole file and decodes every node into a Node on the heap, along with
+ * its move and list of children, so it takes as long as reading the file. A loaded Connect
+ * Four tree takes 5 times the size of its file in heap, or 8 times for a compact tree, so
+ * only load trees that fit in the heap several times over.
+ */
+public class TreeFile {
+
+	private static final int MAGIC = 0x4D435453; // "MCTS"
+	private static final short VERSION = 3;
+	private static final int COMPACT_TREE = 1;
+	private static final int HAS_MOVE = 1;
+	private static final int PRUNED = 2;
+	private static final int HAS_END_SCORE = 4;
+	private static final int EXPANDED = 8;
+	private static final int HAS_AVAILABILITY = 16;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_RECORD_SIZE = 1 << 12; // the buffer is refilled when fewer bytes remain
+
+	private TreeFile() {
+	}
+
+	/**
+	 * Writes the tree below root to the file, overwriting it.
+	 */
+	public static void save(Node root, File file, MoveCodec codec) throws IOException {
+		int players = root.getScores().length;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeByte(players);
+			out.writeByte(root.isCompact() ? COMPACT_TREE : 0);
+			Deque<Node> stack = new ArrayDeque<>();
+			stack.push(root);
+			while (!stack.isEmpty()) {
+				Node node = stack.pop();
+				int flags = (node.move != null ? HAS_MOVE : 0) |
+						(node.pruned ? PRUNED : 0) |
+						(node.endScore != null ? HAS_END_SCORE : 0) |
+						(node.children != null ? EXPANDED : 0) |
+						(node.availability != 0 ? HAS_AVAILABILITY : 0);
+				out.writeByte(flags);
+				out.writeByte(node.player);
+				out.writeInt(node.games);
+				if (node.isCompact()) {
+					out.writeFloat(node.value);
+				} else {
+					for (int i = 0; i < players; i++) {
+						out.writeDouble(node.score[i]);
+					}
+				}
+				if (node.endScore != null) {
+					for (int i = 0; i < players; i++) {
+						out.writeDouble(node.endScore[i]);
+					}
+				}
+				if (node.availability != 0) {
+					out.writeInt(node.availability);
+				}
+				if (node.move != null) {
+					codec.encode(node.move, out);
+				}
+				if (node.children != null) {
+					out.writeInt(node.children.size());
+					// Pushed in reverse so that they are written in order
+					for (int i = node.children.size() - 1; i >= 0; i--) {
+						stack.push(node.children.get(i));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #save(Node, File, MoveCodec)}.
+	 *
+	 * @return the root of the tree, which has no parent
+	 */
+	public static Node load(File file, MoveCodec codec) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			Input in = new Input(channel);
+			ByteBuffer buffer = in.next();
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException(file + " is not a search tree file");
+			}
+			short version = buffer.getShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported search tree file version " + version);
+			}
+			int players = buffer.get();
+			boolean compact = (buffer.get() & COMPACT_TREE) != 0;
+
+			Node root = readNode(in, codec, players, compact, null);
+			// Each frame is a node whose children are still being read
+			Deque<Node> parents = new ArrayDeque<>();
+			Deque<int[]> remaining = new ArrayDeque<>();
+			if (root.children != null) {
+				parents.push(root);
+				remaining.push(new int[] {in.childCount});
+			}
+			while (!parents.isEmpty()) {
+				if (remaining.peek()[0]-- == 0) {
+					parents.pop();
+					remaining.pop();
+					continue;
+				}
+				Node parent = parents.peek();
+				Node node = readNode(in, codec, players, compact, parent);
+				parent.children.add(node);
+				if (node.children != null) {
+					parents.push(node);
+					remaining.push(new int[] {in.childCount});
+				}
+			}
+			return root;
+		}
+	}
+
+	/**
+	 * Reads one node. If it is expanded, its empty list of children is sized to the number
+	 * of children, which is also left in in.childCount.
+	 */
+	private static Node readNode(Input in, MoveCodec codec, int players, boolean compact, Node parent)
+			throws IOException {
+		ByteBuffer buffer = in.next();
+		int flags = buffer.get();
+		Node node = new Node(parent, buffer.get(), players, compact);
+		node.pruned = (flags & PRUNED) != 0;
+		node.games = buffer.getInt();
+		if (compact) {
+			node.value = buffer.getFloat();
+		} else {
+			for (int i = 0; i < players; i++) {
+				node.score[i] = buffer.getDouble();
+			}
+		}
+		if ((flags & HAS_END_SCORE) != 0) {
+			double[] endScore = new double[players];
+			for (int i = 0; i < players; i++) {
+				endScore[i] = buffer.getDouble();
+			}
+			// Also rebuilds the solver counters of the parent
+			node.setEndScore(endScore);
+		}
+		if ((flags & HAS_AVAILABILITY) != 0) {
+			node.availability = buffer.getInt();
+		}
+		if ((flags & HAS_MOVE) != 0) {
+			node.move = codec.decode(buffer);
+		}
+		if ((flags & EXPANDED) != 0) {
+			int childCount = buffer.getInt();
+			node.children = new ArrayList<>(childCount);
+			in.childCount = childCount;
+		}
+		return node;
+	}
+
+	/**
+	 * Reads the file through a buffer that is refilled whenever fewer than MAX_RECORD_SIZE
+	 * bytes remain, so that every record can be decoded from the buffer in one piece.
+	 */
+	private static class Input {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		private boolean endOfFile;
+		private int childCount;
+
+		private Input(FileChannel channel) throws IOException {
+			this.channel = channel;
+			buffer.flip();
+			fill();
+		}
+
+		private ByteBuffer next() throws IOException {
+			if (buffer.remaining() < MAX_RECORD_SIZE && !endOfFile) {
+				fill();
+			}
+			return buffer;
+		}
+
+		private void fill() throws IOException {
+			buffer.compact();
+			while (buffer.hasRemaining() && !endOfFile) {
+				endOfFile = channel.read(buffer) < 0;
+			}
+			buffer.flip();
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs the outcome of each search to a file. Pass an instance to
+ * {@link MCTS#setTreeLogger(TreeLogger)} to enable logging; it is off by default.
+ * <p>
+ * The searching thread only copies the few numbers it needs into a record and offers it to
+ * a bounded queue. A background thread sorts, formats and writes the records, so choosing a
+ * move never waits on disk I/O. If the queue is full the record is dropped and counted. Once
+ * writing has failed, all further records are dropped, and {@link #close()} throws the failure.
+ * <p>
+ * Each record is a group of tab-separated lines:
+ * <pre>
+ * S  player  move  iterations               the search and the move it chose
+ * V  depth   player  move                   one step of the principal variation
+ * R  move    games  score...  [E=score...]  [PRUNED]   a choice at the root
+ * B  move    games  score...  [E=score...]  [PRUNED]   a child of the chosen move
+ * </pre>
+ * Choices are sorted by games, then by score for the player making the choice. Scores are
+ * totals, not averages. E gives the score of perfect play if it is known.
+ */
+public class TreeLogger implements Closeable {
+
+	public static final int DEFAULT_CAPACITY = 64;
+	private static final Record CLOSE = new Record();
+
+	private final BlockingQueue<Record> queue;
+	private final Writer writer;
+	private final Thread thread;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile IOException failure;
+
+	public TreeLogger(File file) throws IOException {
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param file     the log file, which is overwritten
+	 * @param capacity the number of records that may wait to be written
+	 */
+	public TreeLogger(File file, int capacity) throws IOException {
+		this(new BufferedWriter(new FileWriter(file)), file.getName(), capacity);
+	}
+
+	TreeLogger(Writer writer, String name, int capacity) {
+		queue = new ArrayBlockingQueue<>(capacity);
+		this.writer = writer;
+		thread = new Thread(this::writeRecords, "TreeLogger-" + name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Copies the outcome of a search into a record and queues it for writing.
+	 *
+	 * @return false if the queue was full or writing has failed, and the record was dropped
+	 */
+	boolean log(Node rootNode, Node bestNode, long iterations) {
+		if (failure != null || !thread.isAlive()) {
+			dropped.incrementAndGet();
+			return false;
+		}
+		Record record = new Record();
+		record.player = rootNode.player;
+		record.move = bestNode.move;
+		record.iterations = iterations;
+		List<Object> variation = new ArrayList<>();
+		for (Node node = bestNode; node.children != null && !node.children.isEmpty(); ) {
+			node = mostVisited(node);
+			variation.add(node.parent.player);
+			variation.add(node.move);
+		}
+		record.variation = variation.toArray();
+		record.rootChoices = snapshot(rootNode);
+		record.bestChildren = snapshot(bestNode);
+		if (queue.offer(record)) {
+			return true;
+		}
+		dropped.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * @return the number of records dropped because the queue was full or writing failed
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Writes the records already queued, then closes the file.
+	 *
+	 * @throws IOException if writing any record failed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			// The writer thread stops taking records when writing fails, so never wait on a full queue
+			while (thread.isAlive() && !queue.offer(CLOSE, 100, TimeUnit.MILLISECONDS)) {
+				if (failure != null) {
+					break;
+				}
+			}
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writer.close();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static Node mostVisited(Node node) {
+		Node best = node.children.get(0);
+		for (Node child : node.children) {
+			if (child.games > best.games) {
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	private static Choice[] snapshot(Node node) {
+		if (node.children == null) {
+			return new Choice[0];
+		}
+		Choice[] choices = new Choice[node.children.size()];
+		for (int i = 0; i < choices.length; i++) {
+			Node child = node.children.get(i);
+			Choice choice = new Choice();
+			choice.move = child.move;
+			choice.games = child.games;
+			choice.score = child.getScores();
+			choice.endScore = child.endScore; // never modified once set
+			choice.pruned = child.pruned;
+			choice.player = node.player;
+			choices[i] = choice;
+		}
+		return choices;
+	}
+
+	private void writeRecords() {
+		try {
+			Record record;
+			while ((record = queue.take()) != CLOSE) {
+				write(record);
+				if (queue.isEmpty()) {
+					writer.flush();
+				}
+			}
+			writer.flush();
+		} catch (IOException e) {
+			failure = e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void write(Record record) throws IOException {
+		writer.write("S\t" + record.player + "\t" + record.move + "\t" + record.iterations + "\n");
+		for (int i = 0; i < record.variation.length; i += 2) {
+			writer.write("V\t" + (i / 2 + 1) + "\t" + record.variation[i] + "\t" + record.variation[i + 1] + "\n");
+		}
+		writeChoices("R", record.rootChoices);
+		writeChoices("B", record.bestChildren);
+	}
+
+	private void writeChoices(String tag, Choice[] choices) throws IOException {
+		Arrays.sort(choices, Choice.PRINT_ORDER);
+		for (Choice choice : choices) {
+			StringBuilder line = new StringBuilder(tag).append('\t').append(choice.move)
+					.append('\t').append(choice.games);
+			for (double s : choice.score) {
+				line.append('\t').append(s);
+			}
+			if (choice.endScore != null) {
+				line.append("\tE=").append(Arrays.toString(choice.endScore));
+			}
+			if (choice.pruned) {
+				line.append("\tPRUNED");
+			}
+			writer.write(line.append('\n').toString());
+		}
+	}
+
+	private static class Record {
+		private int player;
+		private Move move;
+		private long iterations;
+		private Object[] variation; // alternating player and move
+		private Choice[] rootChoices;
+		private Choice[] bestChildren;
+	}
+
+	private static class Choice {
+		private static final Comparator<Choice> PRINT_ORDER = Comparator.<Choice>comparingDouble(c -> c.games)
+				.thenComparingDouble(c -> c.player < 0 ? 0.0 : c.score[c.player])
+				.reversed();
+
+		private Move move;
+		private double games;
+		private double[] score;
+		private double[] endScore;
+		private boolean pruned;
+		private int player; // the player making this choice
+	}
+}
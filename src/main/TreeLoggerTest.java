@@ -0,0 +1,57 @@
+package main;
+
+import ticTacToe.TicTacToe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that a failing writer neither blocks searches nor hangs {@link TreeLogger#close()}.
+ */
+class TreeLoggerTest {
+	public static void main(String[] args) throws Exception {
+		Writer failing = new Writer() {
+			@Override
+			public void write(char[] buffer, int offset, int length) throws IOException {
+				throw new IOException("disk full");
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		TreeLogger logger = new TreeLogger(failing, "failing", 2);
+		MCTS mcts = new MCTS();
+		mcts.setSeed(1);
+		mcts.setTreeLogger(logger);
+		TicTacToe board = new TicTacToe();
+		for (int i = 0; i < 20; i++) {
+			mcts.runMCTS_UCT(board, 100, 0L);
+		}
+		if (logger.getDropped() == 0) {
+			throw new IllegalStateException("Records were queued after writing failed");
+		}
+		AtomicReference<IOException> reported = new AtomicReference<>();
+		Thread closer = new Thread(() -> {
+			try {
+				logger.close();
+			} catch (IOException e) {
+				reported.set(e);
+			}
+		});
+		closer.setDaemon(true);
+		closer.start();
+		closer.join(10_000L);
+		if (closer.isAlive()) {
+			throw new IllegalStateException("close() hangs after writing failed");
+		}
+		if (reported.get() == null) {
+			throw new IllegalStateException("close() did not report the failure");
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package main;
+
+/**
+ * Computes the upper confidence bounds of the children of one node from their visits and
+ * scores, gathered into primitive arrays by the search. For a child with score s and
+ * games g, under a parent with log(games + 1) = l, the bound is
+ * <pre>
+ *     s / g + c * sqrt(l / g)
+ * </pre>
+ * where an unvisited child (g == 0) gets 1 for s / g if s == 0 and infinity otherwise,
+ * and likewise 1 or infinity for l / g. Every implementation must give exactly these
+ * values, so that the search does not depend on which one is used.
+ */
+interface UcbKernel {
+
+	/**
+	 * The kernel used by the search: the vectorized one when the jdk.incubator.vector
+	 * module is present and its implementation was compiled, otherwise the scalar one.
+	 * Set the system property mcts.vector to false to use the scalar one regardless.
+	 */
+	UcbKernel INSTANCE = create();
+
+	/**
+	 * Stores the bound of child i in values[i], for each i < count.
+	 *
+	 * @param scores the score of each child for the player choosing between them
+	 * @param games  the games of each child
+	 * @param log    the log of the parent's games plus one
+	 * @param c      the exploration constant
+	 */
+	void compute(double[] scores, double[] games, int count, double log, double c, double[] values);
+
+	static UcbKernel create() {
+		if (Boolean.parseBoolean(System.getProperty("mcts.vector", "true")) &&
+				ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return (UcbKernel) Class.forName("main.VectorUcbKernel").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError ignore) {
+				// Not compiled in, so fall back to the scalar kernel
+			}
+		}
+		return new ScalarUcbKernel();
+	}
+}
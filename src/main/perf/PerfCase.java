@@ -0,0 +1,69 @@
+package main.perf;
+
+import main.Board;
+import main.MCTS;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One fixed position and search budget measured by the {@link PerfRegressionSuite}.
+ */
+public class PerfCase {
+
+	private final String name;
+	private final int runs;
+	private final Supplier<? extends Board> position;
+	private Consumer<MCTS> setup = mcts -> {
+	};
+
+	/**
+	 * @param name     identifies the case in the baseline. Use letters, digits, dots and dashes
+	 * @param runs     iterations per search
+	 * @param position creates the position searched. Must create the same position every time
+	 */
+	public PerfCase(String name, int runs, Supplier<? extends Board> position) {
+		if (!name.matches("[A-Za-z0-9.\\-]+")) {
+			throw new IllegalArgumentException("Invalid case name " + name);
+		}
+		if (runs < 1) {
+			throw new IllegalArgumentException("runs must be positive, was " + runs);
+		}
+		this.name = name;
+		this.runs = runs;
+		this.position = position;
+	}
+
+	/**
+	 * Configures the engine, for example with a heuristic. The engine is already seeded.
+	 */
+	public PerfCase setEngine(Consumer<MCTS> setup) {
+		this.setup = setup;
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getRuns() {
+		return runs;
+	}
+
+	/**
+	 * @return a new copy of the position
+	 */
+	public Board newPosition() {
+		return position.get();
+	}
+
+	/**
+	 * @return a new engine, configured for the case and seeded
+	 */
+	public MCTS newEngine(long seed) {
+		MCTS mcts = new MCTS();
+		mcts.setSeed(seed);
+		setup.accept(mcts);
+		return mcts;
+	}
+}
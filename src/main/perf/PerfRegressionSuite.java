@@ -0,0 +1,215 @@
+package main.perf;
+
+import main.Board;
+import main.MCTS;
+import main.SearchStats;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Measures search throughput and allocation on fixed positions and compares them with
+ * a recorded baseline.
+ * <p>
+ * Every search of a case starts from the same position with the engine and the game
+ * seeded alike, so it repeats the same iterations and the numbers of two builds can be
+ * compared. Each case is searched a few times to warm up the JIT and then measured over
+ * several repeats, taking the fastest search and the median allocation. Throughput is compared with the baseline in iterations per second and
+ * allocation in bytes per iteration; both are flagged when they are worse by more than
+ * the tolerance.
+ * <p>
+ * Allocation is read from com.sun.management.ThreadMXBean, which HotSpot provides. On
+ * other JVMs bytes per iteration are NaN and are not compared.
+ */
+public class PerfRegressionSuite {
+
+	private final List<PerfCase> cases;
+	private long seed = 1L;
+	private int warmups = 2;
+	private int repeats = 5;
+	private double tolerance = 10.0;
+
+	public PerfRegressionSuite(List<PerfCase> cases) {
+		this.cases = new ArrayList<>(cases);
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of unmeasured searches of each case. Default is 2.
+	 */
+	public void setWarmups(int warmups) {
+		if (warmups < 0) {
+			throw new IllegalArgumentException("warmups must not be negative, was " + warmups);
+		}
+		this.warmups = warmups;
+	}
+
+	/**
+	 * Sets the number of measured searches of each case. Default is 5.
+	 */
+	public void setRepeats(int repeats) {
+		if (repeats < 1) {
+			throw new IllegalArgumentException("repeats must be positive, was " + repeats);
+		}
+		this.repeats = repeats;
+	}
+
+	/**
+	 * Sets how much worse than the baseline, in percent, a case may be before it is
+	 * flagged. Default is 10.
+	 */
+	public void setTolerance(double percent) {
+		if (percent < 0.0) {
+			throw new IllegalArgumentException("percent must not be negative, was " + percent);
+		}
+		this.tolerance = percent;
+	}
+
+	/**
+	 * Measures every case, printing each result as it is known.
+	 */
+	public List<PerfResult> run() {
+		List<PerfResult> results = new ArrayList<>();
+		for (PerfCase perfCase : cases) {
+			PerfResult result = measure(perfCase);
+			System.out.println(result);
+			results.add(result);
+		}
+		return results;
+	}
+
+	private PerfResult measure(PerfCase perfCase) {
+		for (int i = 0; i < warmups; i++) {
+			search(perfCase);
+		}
+		long[] nanos = new long[repeats];
+		long[] bytes = new long[repeats];
+		SearchStats first = null;
+		boolean repeatable = true;
+		for (int i = 0; i < repeats; i++) {
+			Board board = perfCase.newPosition();
+			MCTS mcts = perfCase.newEngine(seed);
+			long startBytes = allocatedBytes();
+			long start = System.nanoTime();
+			mcts.runMCTS(board, perfCase.getRuns(), 0L, mcts.newRootNode(board));
+			nanos[i] = System.nanoTime() - start;
+			bytes[i] = allocatedBytes() - startBytes;
+			SearchStats stats = mcts.getSearchStats();
+			if (first == null) {
+				first = stats;
+			} else if (stats.getIterations() != first.getIterations() || stats.getNodesCreated() != first.getNodesCreated()) {
+				repeatable = false;
+			}
+		}
+		long iterations = first.getIterations();
+		// The fastest search is the one least disturbed by the rest of the machine
+		Arrays.sort(nanos);
+		double iterationsPerSecond = iterations * 1e9 / Math.max(1L, nanos[0]);
+		double bytesPerIteration = bytes[0] < 0 ? Double.NaN : (double) median(bytes) / iterations;
+		return new PerfResult(perfCase.getName(), iterations, first.getNodesCreated(), iterationsPerSecond,
+				bytesPerIteration, repeatable);
+	}
+
+	private void search(PerfCase perfCase) {
+		Board board = perfCase.newPosition();
+		MCTS mcts = perfCase.newEngine(seed);
+		mcts.runMCTS(board, perfCase.getRuns(), 0L, mcts.newRootNode(board));
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	/**
+	 * @return the bytes allocated so far by this thread, or a negative number if unknown
+	 */
+	static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return -1L;
+		}
+		return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Compares results with a baseline and prints the comparison of each case.
+	 *
+	 * @return a description of each regression. Empty if there are none
+	 */
+	public List<String> compare(List<PerfResult> results, Properties baseline) {
+		List<String> regressions = new ArrayList<>();
+		for (PerfResult result : results) {
+			String prefix = result.getName() + ".";
+			String expectedRate = baseline.getProperty(prefix + "iterationsPerSecond");
+			if (expectedRate == null) {
+				System.out.println(result.getName() + ": no baseline");
+				continue;
+			}
+			if (!String.valueOf(result.getNodesCreated()).equals(baseline.getProperty(prefix + "nodesCreated"))) {
+				System.out.println(result.getName() + ": the search differs from the baseline's, so the numbers may not be comparable");
+			}
+			double rateChange = percentChange(Double.parseDouble(expectedRate), result.getIterationsPerSecond());
+			System.out.printf("%s: iterations/s %+.1f%%%n", result.getName(), rateChange);
+			if (-rateChange > tolerance) {
+				regressions.add(String.format("%s is %.1f%% slower: %.0f iterations/s against %s", result.getName(),
+						-rateChange, result.getIterationsPerSecond(), expectedRate));
+			}
+			String expectedBytes = baseline.getProperty(prefix + "bytesPerIteration");
+			if (expectedBytes != null && !Double.isNaN(result.getBytesPerIteration())) {
+				double bytesChange = percentChange(Double.parseDouble(expectedBytes), result.getBytesPerIteration());
+				System.out.printf("%s: bytes/iteration %+.1f%%%n", result.getName(), bytesChange);
+				if (bytesChange > tolerance) {
+					regressions.add(String.format("%s allocates %.1f%% more: %.0f bytes/iteration against %s",
+							result.getName(), bytesChange, result.getBytesPerIteration(), expectedBytes));
+				}
+			}
+		}
+		return regressions;
+	}
+
+	private static double percentChange(double expected, double actual) {
+		return (actual - expected) * 100.0 / expected;
+	}
+
+	public static Properties loadBaseline(File file) throws IOException {
+		Properties baseline = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			baseline.load(in);
+		}
+		return baseline;
+	}
+
+	/**
+	 * Records the results as the new baseline, overwriting the file.
+	 */
+	public static void saveBaseline(List<PerfResult> results, File file) throws IOException {
+		Properties baseline = new Properties();
+		for (PerfResult result : results) {
+			String prefix = result.getName() + ".";
+			baseline.setProperty(prefix + "iterations", String.valueOf(result.getIterations()));
+			baseline.setProperty(prefix + "nodesCreated", String.valueOf(result.getNodesCreated()));
+			baseline.setProperty(prefix + "iterationsPerSecond", String.format(Locale.ROOT, "%.0f", result.getIterationsPerSecond()));
+			if (!Double.isNaN(result.getBytesPerIteration())) {
+				baseline.setProperty(prefix + "bytesPerIteration", String.format(Locale.ROOT, "%.1f", result.getBytesPerIteration()));
+			}
+		}
+		try (OutputStream out = new FileOutputStream(file)) {
+			baseline.store(out, "MCTS performance baseline. Record again with --record after intended changes");
+		}
+	}
+}
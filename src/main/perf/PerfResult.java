@@ -0,0 +1,67 @@
+package main.perf;
+
+/**
+ * The measurements of one {@link PerfCase}.
+ */
+public class PerfResult {
+
+	private final String name;
+	private final long iterations;
+	private final long nodesCreated;
+	private final double iterationsPerSecond;
+	private final double bytesPerIteration;
+	private final boolean repeatable;
+
+	PerfResult(String name, long iterations, long nodesCreated, double iterationsPerSecond, double bytesPerIteration,
+	           boolean repeatable) {
+		this.name = name;
+		this.iterations = iterations;
+		this.nodesCreated = nodesCreated;
+		this.iterationsPerSecond = iterationsPerSecond;
+		this.bytesPerIteration = bytesPerIteration;
+		this.repeatable = repeatable;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the iterations of each search. Less than the runs of the case if the search stopped early
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return the nodes created by each search. Any change to the search from this
+	 * position and seed is very likely to change it
+	 */
+	public long getNodesCreated() {
+		return nodesCreated;
+	}
+
+	public double getIterationsPerSecond() {
+		return iterationsPerSecond;
+	}
+
+	/**
+	 * @return bytes allocated per iteration, or NaN if the JVM cannot measure allocation
+	 */
+	public double getBytesPerIteration() {
+		return bytesPerIteration;
+	}
+
+	/**
+	 * @return true if every repeated search created the same nodes
+	 */
+	public boolean isRepeatable() {
+		return repeatable;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d iterations, %d nodes, %.0f iterations/s, %.0f bytes/iteration%s", name, iterations,
+				nodesCreated, iterationsPerSecond, bytesPerIteration, repeatable ? "" : ", NOT REPEATABLE");
+	}
+}
@@ -0,0 +1,48 @@
+package main.support;
+
+import main.Board;
+import main.Move;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays the move the heuristic rates best, except that with probability epsilon it
+ * plays a uniformly random move instead. Ties between best moves are broken at random.
+ */
+public class EpsilonGreedyPlayoutPolicy implements PlayoutPolicy {
+
+	private final HeuristicFunction heuristic;
+	private final double epsilon;
+
+	/**
+	 * @param heuristic rates the moves
+	 * @param epsilon   probability in range [0, 1] of playing a random move
+	 */
+	public EpsilonGreedyPlayoutPolicy(HeuristicFunction heuristic, double epsilon) {
+		this.heuristic = heuristic;
+		this.epsilon = epsilon;
+	}
+
+	@Override
+	public Move select(Board board, List<Move> moves, RandomGenerator random) {
+		if (moves.size() == 1 || random.nextDouble() < epsilon) {
+			return moves.get(random.nextInt(moves.size()));
+		}
+		double[] h = heuristic.h(board, moves);
+		double bestValue = Double.NEGATIVE_INFINITY;
+		int best = 0;
+		int ties = 0;
+		for (int i = 0; i < h.length; i++) {
+			if (h[i] > bestValue) {
+				bestValue = h[i];
+				best = i;
+				ties = 1;
+			} else if (h[i] == bestValue && random.nextInt(++ties) == 0) {
+				// Reservoir sampling gives each tied move an equal chance
+				best = i;
+			}
+		}
+		return moves.get(best);
+	}
+}
@@ -0,0 +1,20 @@
+package main.support;
+
+import main.Board;
+
+/**
+ * Create a class implementing this interface and instantiate
+ * it. Pass the instance to the MCTS instance using the
+ * {@link main.MCTS#setPlayoutCutoff(int, EvaluationFunction) setPlayoutCutoff}
+ * method to stop playouts early and score the position reached instead.
+ */
+public interface EvaluationFunction {
+	/**
+	 * Estimates the score vector of a board whose game is not yet over. Follows the
+	 * conventions of {@link Board#getScore()}: each entry should be in range [0, 1].
+	 *
+	 * @param board the board reached by a truncated playout
+	 * @return score array
+	 */
+	double[] evaluate(Board board);
+}
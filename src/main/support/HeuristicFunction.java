@@ -3,6 +3,8 @@ package main.support;
 import main.Board;
 import main.Move;
 
+import java.util.List;
+
 /**
  * Create a class implementing this interface and instantiate
  * it. Pass the instance to the MCTS instance using the
@@ -18,4 +20,21 @@ public interface HeuristicFunction {
 	 * @return a score in rance [-1, 1]
 	 */
 	double h(Board board, Move move);
+
+	/**
+	 * Calculates {@link #h(Board, Move)} for every move that can be played on this board.
+	 * MCTS calls this once per expansion. Override it when work shared by all moves, such as
+	 * scoring the board before the move, can be done once rather than once per move.
+	 *
+	 * @param board the board upon which these moves could be played
+	 * @param moves the moves to be evaluated
+	 * @return a score in range [-1, 1] for each move, in the same order as moves
+	 */
+	default double[] h(Board board, List<Move> moves) {
+		double[] scores = new double[moves.size()];
+		for (int i = 0; i < scores.length; i++) {
+			scores[i] = h(board, moves.get(i));
+		}
+		return scores;
+	}
 }
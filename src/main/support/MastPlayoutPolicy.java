@@ -0,0 +1,156 @@
+package main.support;
+
+import main.Board;
+import main.Move;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Move-Average Sampling Technique. Learns the average playout result of every move from
+ * the playouts themselves and plays the move with the best average, except that with
+ * probability epsilon it plays a uniformly random move instead.
+ * <p>
+ * With N-gram selection (NST) enabled, the policy also learns the average result of each
+ * move when it directly follows the previous playout move, and rates a move by the mean of
+ * its move average and its pair average once the pair has been seen often enough.
+ * <p>
+ * Moves are identified by their hashCode(), so Move implementations should override it.
+ * The statistics are shared by every search using this instance, including searches on
+ * other threads.
+ */
+public class MastPlayoutPolicy implements PlayoutPolicy {
+
+	private static final int TABLE_SIZE = 1 << 16;
+	private static final double UNSEEN_AVERAGE = 1.0d; // optimistic, so that unseen moves get tried
+
+	private final double epsilon;
+	private final int minPairVisits;
+	private final MoveStatistics moveStatistics = new MoveStatistics(TABLE_SIZE);
+	private final MoveStatistics pairStatistics;
+	private final ThreadLocal<Trace> traces = ThreadLocal.withInitial(Trace::new);
+
+	/**
+	 * Creates a MAST policy.
+	 *
+	 * @param epsilon probability in range [0, 1] of playing a random move
+	 */
+	public MastPlayoutPolicy(double epsilon) {
+		this(epsilon, 0);
+	}
+
+	/**
+	 * Creates an NST policy.
+	 *
+	 * @param epsilon       probability in range [0, 1] of playing a random move
+	 * @param minPairVisits times a pair of moves must be seen before its average is used.
+	 *                      0 disables N-gram selection
+	 */
+	public MastPlayoutPolicy(double epsilon, int minPairVisits) {
+		this.epsilon = epsilon;
+		this.minPairVisits = minPairVisits;
+		pairStatistics = minPairVisits > 0 ? new MoveStatistics(TABLE_SIZE) : null;
+	}
+
+	@Override
+	public void playoutStarted() {
+		traces.get().clear();
+	}
+
+	@Override
+	public Move select(Board board, List<Move> moves, RandomGenerator random) {
+		Trace trace = traces.get();
+		int player = board.getCurrentPlayer();
+		Move move;
+		if (moves.size() == 1 || random.nextDouble() < epsilon) {
+			move = moves.get(random.nextInt(moves.size()));
+		} else {
+			move = bestMove(moves, player, trace.size > 0, trace.previousHash(), random);
+		}
+		trace.add(player, move.hashCode());
+		return move;
+	}
+
+	/**
+	 * @param hasPrevious  whether a move was played before in this playout
+	 * @param previousHash the hash code of that move. Any value, 0 included, is a valid hash code
+	 */
+	private Move bestMove(List<Move> moves, int player, boolean hasPrevious, int previousHash, RandomGenerator random) {
+		double bestValue = Double.NEGATIVE_INFINITY;
+		int best = 0;
+		int ties = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int hash = moves.get(i).hashCode();
+			double value = moveStatistics.getAverage(MoveStatistics.key(player, hash, 0), UNSEEN_AVERAGE);
+			if (pairStatistics != null && hasPrevious) {
+				long pairKey = MoveStatistics.key(player, previousHash, hash);
+				if (pairStatistics.getVisits(pairKey) >= minPairVisits) {
+					value = (value + pairStatistics.getAverage(pairKey, UNSEEN_AVERAGE)) / 2.0d;
+				}
+			}
+			if (value > bestValue) {
+				bestValue = value;
+				best = i;
+				ties = 1;
+			} else if (value == bestValue && random.nextInt(++ties) == 0) {
+				best = i;
+			}
+		}
+		return moves.get(best);
+	}
+
+	@Override
+	public void playoutFinished(double[] score) {
+		Trace trace = traces.get();
+		for (int i = 0; i < trace.size; i++) {
+			int player = trace.players[i];
+			int hash = trace.hashes[i];
+			moveStatistics.add(MoveStatistics.key(player, hash, 0), score[player]);
+			if (pairStatistics != null && i > 0) {
+				pairStatistics.add(MoveStatistics.key(player, trace.hashes[i - 1], hash), score[player]);
+			}
+		}
+		trace.clear();
+	}
+
+	/**
+	 * Forgets everything learned so far, for example between games.
+	 */
+	public void clear() {
+		moveStatistics.clear();
+		if (pairStatistics != null) {
+			pairStatistics.clear();
+		}
+	}
+
+	/**
+	 * The moves chosen so far in the current playout of one thread. Arrays are reused
+	 * between playouts.
+	 */
+	private static class Trace {
+		private int[] players = new int[64];
+		private int[] hashes = new int[64];
+		private int size;
+
+		private void add(int player, int hash) {
+			if (size == players.length) {
+				players = Arrays.copyOf(players, size * 2);
+				hashes = Arrays.copyOf(hashes, size * 2);
+			}
+			players[size] = player;
+			hashes[size++] = hash;
+		}
+
+		/**
+		 * @return the hash code of the last move. Only valid if size > 0
+		 */
+		private int previousHash() {
+			return size == 0 ? 0 : hashes[size - 1];
+		}
+
+		private void clear() {
+			size = 0;
+		}
+	}
+}
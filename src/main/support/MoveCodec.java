@@ -0,0 +1,30 @@
+package main.support;
+
+import main.Move;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the moves of one game to and from a compact binary form, so that
+ * search trees can be saved with {@link main.TreeFile}.
+ */
+public interface MoveCodec {
+	/**
+	 * Writes the move.
+	 *
+	 * @param move the move to encode
+	 * @param out  the destination
+	 */
+	void encode(Move move, DataOutput out) throws IOException;
+
+	/**
+	 * Reads a move written by {@link #encode(Move, DataOutput)}, advancing the
+	 * position of the buffer past it.
+	 *
+	 * @param in a buffer positioned at the start of the move
+	 * @return the decoded move
+	 */
+	Move decode(ByteBuffer in);
+}
@@ -0,0 +1,78 @@
+package main.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table of the average playout result for each key, such as a move or a
+ * pair of moves. Updates are lock-free, so one table can be shared by searches running
+ * on several threads. Keys are hashed into the table without probing, so the rare keys
+ * that collide share their statistics.
+ */
+public class MoveStatistics {
+
+	private static final double SCALE = 1 << 20; // fixed-point resolution of summed scores
+
+	private final AtomicLongArray visits;
+	private final AtomicLongArray sums;
+	private final int mask;
+
+	/**
+	 * @param capacity number of slots, rounded up to a power of two
+	 */
+	public MoveStatistics(int capacity) {
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		visits = new AtomicLongArray(size);
+		sums = new AtomicLongArray(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Records one playout result for the key.
+	 *
+	 * @param score a score in range [0, 1]
+	 */
+	public void add(long key, double score) {
+		int slot = slot(key);
+		// Scores are summed in fixed point so that getAndAdd() can be used instead of a CAS loop
+		sums.getAndAdd(slot, (long) (score * SCALE));
+		visits.getAndIncrement(slot);
+	}
+
+	public long getVisits(long key) {
+		return visits.get(slot(key));
+	}
+
+	/**
+	 * @param defaultValue returned if the key has never been recorded
+	 * @return the average score recorded for the key
+	 */
+	public double getAverage(long key, double defaultValue) {
+		int slot = slot(key);
+		long n = visits.get(slot);
+		return n == 0 ? defaultValue : sums.get(slot) / SCALE / n;
+	}
+
+	public void clear() {
+		for (int i = 0; i <= mask; i++) {
+			visits.set(i, 0L);
+			sums.set(i, 0L);
+		}
+	}
+
+	/**
+	 * Combines a player and up to two hash codes into a key.
+	 */
+	public static long key(int player, int hash1, int hash2) {
+		return ((long) hash1 << 32 | (hash2 & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L + player;
+	}
+
+	private int slot(long key) {
+		// Finalizer of MurmurHash3 to spread the bits of the key
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		return (int) key & mask;
+	}
+}
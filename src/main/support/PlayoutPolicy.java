@@ -0,0 +1,41 @@
+package main.support;
+
+import main.Board;
+import main.Move;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Create a class implementing this interface and instantiate
+ * it. Pass the instance to the MCTS instance using the
+ * {@link main.MCTS#setPlayoutPolicy(PlayoutPolicy) setPlayoutPolicy} method
+ * to replace the uniformly random choice of moves during playouts.
+ */
+public interface PlayoutPolicy {
+	/**
+	 * Chooses the move to play next in a playout. This is only called for
+	 * regular players. Moves of the random player are chosen by weight.
+	 *
+	 * @param board  the board of the playout
+	 * @param moves  the legal moves on this board. Never empty
+	 * @param random the random number generator of the search
+	 * @return one of moves
+	 */
+	Move select(Board board, List<Move> moves, RandomGenerator random);
+
+	/**
+	 * Called before the first move of each playout. Policies that learn from
+	 * playouts can reset their record of the moves played here.
+	 */
+	default void playoutStarted() {
+	}
+
+	/**
+	 * Called when a playout ends, or is cut off and evaluated.
+	 *
+	 * @param score the score vector of the playout
+	 */
+	default void playoutFinished(double[] score) {
+	}
+}
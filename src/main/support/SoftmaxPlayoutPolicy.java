@@ -0,0 +1,56 @@
+package main.support;
+
+import main.Board;
+import main.Move;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays each move with probability proportional to exp(h / temperature), where h is
+ * the heuristic rating of the move. Low temperatures approach greedy play, high
+ * temperatures approach uniformly random play.
+ */
+public class SoftmaxPlayoutPolicy implements PlayoutPolicy {
+
+	private final HeuristicFunction heuristic;
+	private final double temperature;
+
+	/**
+	 * @param heuristic   rates the moves
+	 * @param temperature must be greater than 0
+	 */
+	public SoftmaxPlayoutPolicy(HeuristicFunction heuristic, double temperature) {
+		if (temperature <= 0.0d) {
+			throw new IllegalArgumentException("Temperature must be positive: " + temperature);
+		}
+		this.heuristic = heuristic;
+		this.temperature = temperature;
+	}
+
+	@Override
+	public Move select(Board board, List<Move> moves, RandomGenerator random) {
+		if (moves.size() == 1) {
+			return moves.get(0);
+		}
+		double[] weights = heuristic.h(board, moves);
+		double max = Double.NEGATIVE_INFINITY;
+		for (double h : weights) {
+			max = Math.max(max, h);
+		}
+		// Subtracting the max keeps exp() from overflowing without changing the distribution
+		double totalWeight = 0.0d;
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = Math.exp((weights[i] - max) / temperature);
+			totalWeight += weights[i];
+		}
+		double r = random.nextDouble() * totalWeight;
+		for (int i = 0; i < weights.length; i++) {
+			r -= weights[i];
+			if (r <= 0.0d) {
+				return moves.get(i);
+			}
+		}
+		return moves.get(moves.size() - 1);
+	}
+}
@@ -0,0 +1,18 @@
+package main.support;
+
+import main.Board;
+import main.Move;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses every playout move uniformly at random. This is the default policy.
+ */
+public class UniformPlayoutPolicy implements PlayoutPolicy {
+
+	@Override
+	public Move select(Board board, List<Move> moves, RandomGenerator random) {
+		return moves.get(random.nextInt(moves.size()));
+	}
+}
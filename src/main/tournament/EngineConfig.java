@@ -0,0 +1,185 @@
+package main.tournament;
+
+import main.Board;
+import main.MCTS;
+import main.Move;
+import main.support.EvaluationFunction;
+import main.support.HeuristicFunction;
+import main.support.PlayoutPolicy;
+
+import java.util.function.Supplier;
+
+/**
+ * The settings of one engine in a {@link Tournament}. Each worker thread builds its own
+ * MCTS from the configuration, so the heuristic and evaluation functions are shared
+ * between threads and must be stateless. Playout policies may keep state, so a new one
+ * is made for each engine.
+ */
+public class EngineConfig {
+
+	private final String name;
+	private final double explorationConstant;
+	private final int runs;
+	private final long maxTime;
+	private HeuristicFunction heuristic;
+	private int gamesSimulatedByHeuristic = MCTS.GAMES_SIMULATED_BY_HEURISTIC;
+	private Supplier<? extends PlayoutPolicy> playoutPolicy;
+	private int playoutDepth;
+	private EvaluationFunction evaluator;
+	private int expansionThreshold;
+	private boolean informationSets;
+	private double wideningConstant;
+	private double wideningExponent;
+	private boolean symmetryMerging;
+	private int solvedCacheCapacity;
+
+	/**
+	 * @param name                identifies the engine in the results
+	 * @param explorationConstant see {@link MCTS#setExplorationConstant(double)}
+	 * @param runs                iterations per move. Ignored if 0
+	 * @param maxTime             time (in ms) per move. Ignored unless runs == 0
+	 */
+	public EngineConfig(String name, double explorationConstant, int runs, long maxTime) {
+		if (runs <= 0 && maxTime <= 0) {
+			throw new IllegalArgumentException("Engine " + name + " needs a run or time budget");
+		}
+		this.name = name;
+		this.explorationConstant = explorationConstant;
+		this.runs = runs;
+		this.maxTime = maxTime;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getExplorationConstant() {
+		return explorationConstant;
+	}
+
+	public int getRuns() {
+		return runs;
+	}
+
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	public EngineConfig setHeuristicFunction(HeuristicFunction heuristic) {
+		this.heuristic = heuristic;
+		return this;
+	}
+
+	/**
+	 * See {@link MCTS#setGamesSimulatedByHeuristic(int)}
+	 */
+	public EngineConfig setGamesSimulatedByHeuristic(int games) {
+		if (games < 1) {
+			throw new IllegalArgumentException("games must be positive, was " + games);
+		}
+		this.gamesSimulatedByHeuristic = games;
+		return this;
+	}
+
+	public int getGamesSimulatedByHeuristic() {
+		return gamesSimulatedByHeuristic;
+	}
+
+	public EngineConfig setPlayoutPolicy(Supplier<? extends PlayoutPolicy> playoutPolicy) {
+		this.playoutPolicy = playoutPolicy;
+		return this;
+	}
+
+	/**
+	 * See {@link MCTS#setPlayoutCutoff(int, EvaluationFunction)}
+	 */
+	public EngineConfig setPlayoutCutoff(int depth, EvaluationFunction evaluator) {
+		this.playoutDepth = depth;
+		this.evaluator = evaluator;
+		return this;
+	}
+
+	/**
+	 * See {@link MCTS#setExpansionThreshold(int)}
+	 */
+	public EngineConfig setExpansionThreshold(int visits) {
+		if (visits < 0) {
+			throw new IllegalArgumentException("visits must not be negative, was " + visits);
+		}
+		this.expansionThreshold = visits;
+		return this;
+	}
+
+	public int getExpansionThreshold() {
+		return expansionThreshold;
+	}
+
+	/**
+	 * See {@link MCTS#setInformationSetSearch(boolean)}
+	 */
+	public EngineConfig setInformationSetSearch(boolean informationSets) {
+		this.informationSets = informationSets;
+		return this;
+	}
+
+	public boolean isInformationSetSearch() {
+		return informationSets;
+	}
+
+	/**
+	 * See {@link MCTS#setChanceWidening(double, double)}
+	 */
+	public EngineConfig setChanceWidening(double constant, double exponent) {
+		if (constant < 0 || exponent < 0 || exponent > 1) {
+			throw new IllegalArgumentException("Invalid widening " + constant + " * visits^" + exponent);
+		}
+		this.wideningConstant = constant;
+		this.wideningExponent = exponent;
+		return this;
+	}
+
+	/**
+	 * See {@link MCTS#setSymmetryMerging(boolean)}
+	 */
+	public EngineConfig setSymmetryMerging(boolean merge) {
+		this.symmetryMerging = merge;
+		return this;
+	}
+
+	/**
+	 * See {@link MCTS#setSolvedPositionCache(int)}. Each engine gets a cache of its own.
+	 */
+	public EngineConfig setSolvedPositionCache(int capacity) {
+		if (capacity < 0 || capacity > MCTS.MAX_SOLVED_POSITIONS) {
+			throw new IllegalArgumentException("capacity must be in range 0-" + MCTS.MAX_SOLVED_POSITIONS + ", was " + capacity);
+		}
+		this.solvedCacheCapacity = capacity;
+		return this;
+	}
+
+	MCTS newEngine() {
+		MCTS mcts = new MCTS();
+		mcts.setExplorationConstant(explorationConstant);
+		mcts.setHeuristicFunction(heuristic);
+		mcts.setGamesSimulatedByHeuristic(gamesSimulatedByHeuristic);
+		if (playoutPolicy != null) {
+			mcts.setPlayoutPolicy(playoutPolicy.get());
+		}
+		mcts.setPlayoutCutoff(playoutDepth, evaluator);
+		mcts.setExpansionThreshold(expansionThreshold);
+		mcts.setInformationSetSearch(informationSets);
+		mcts.setChanceWidening(wideningConstant, wideningExponent);
+		mcts.setSymmetryMerging(symmetryMerging);
+		mcts.setSolvedPositionCache(solvedCacheCapacity);
+		return mcts;
+	}
+
+	Move chooseMove(MCTS mcts, Board board) {
+		return mcts.runMCTS_UCT(board, runs, maxTime);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
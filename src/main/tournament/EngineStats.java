@@ -0,0 +1,118 @@
+package main.tournament;
+
+/**
+ * The results of one engine over all the seats it played in a tournament. A seat wins
+ * when its score is higher than every other seat's and draws when it ties for the
+ * highest score. Single player games only have scores.
+ * <p>
+ * Intervals are at 95% confidence: Wilson score intervals for rates and normal
+ * intervals for the mean score.
+ */
+public class EngineStats {
+
+	static final double Z = 1.959964;
+
+	private final String name;
+	private int games;
+	private int wins;
+	private int draws;
+	private int losses;
+	private double scoreSum;
+	private double scoreSquareSum;
+
+	EngineStats(String name) {
+		this.name = name;
+	}
+
+	void add(double score, int outcome) {
+		games++;
+		scoreSum += score;
+		scoreSquareSum += score * score;
+		if (outcome > 0) {
+			wins++;
+		} else if (outcome == 0) {
+			draws++;
+		} else if (outcome == -1) {
+			losses++;
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getGames() {
+		return games;
+	}
+
+	public int getWins() {
+		return wins;
+	}
+
+	public int getDraws() {
+		return draws;
+	}
+
+	public int getLosses() {
+		return losses;
+	}
+
+	public double getWinRate() {
+		return games == 0 ? 0.0 : (double) wins / games;
+	}
+
+	/**
+	 * @return the lower and upper bounds of the win rate
+	 */
+	public double[] getWinRateInterval() {
+		return wilson(wins, games);
+	}
+
+	public double getMeanScore() {
+		return games == 0 ? 0.0 : scoreSum / games;
+	}
+
+	/**
+	 * @return the sample standard deviation of the score
+	 */
+	public double getScoreDeviation() {
+		if (games < 2) {
+			return 0.0;
+		}
+		double mean = getMeanScore();
+		return Math.sqrt(Math.max(0.0, (scoreSquareSum - games * mean * mean) / (games - 1)));
+	}
+
+	/**
+	 * @return the lower and upper bounds of the mean score
+	 */
+	public double[] getScoreInterval() {
+		double mean = getMeanScore();
+		double margin = games == 0 ? 0.0 : Z * getScoreDeviation() / Math.sqrt(games);
+		return new double[]{mean - margin, mean + margin};
+	}
+
+	static double[] wilson(int successes, int trials) {
+		if (trials == 0) {
+			return new double[]{0.0, 1.0};
+		}
+		double p = (double) successes / trials;
+		double z2 = Z * Z;
+		double denominator = 1 + z2 / trials;
+		double centre = (p + z2 / (2 * trials)) / denominator;
+		double margin = Z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+		return new double[]{centre - margin, centre + margin};
+	}
+
+	@Override
+	public String toString() {
+		double[] score = getScoreInterval();
+		String result = String.format("%s: %d games, score %.4f [%.4f, %.4f]", name, games, getMeanScore(), score[0], score[1]);
+		if (wins + draws + losses > 0) {
+			double[] winRate = getWinRateInterval();
+			result += String.format(", %d wins, %d draws, %d losses, win rate %.3f [%.3f, %.3f]",
+					wins, draws, losses, getWinRate(), winRate[0], winRate[1]);
+		}
+		return result;
+	}
+}
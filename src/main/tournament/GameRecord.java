@@ -0,0 +1,70 @@
+package main.tournament;
+
+/**
+ * The outcome of one tournament game.
+ */
+public class GameRecord {
+
+	private final int game;
+	private final String[] seats;
+	private final double[] score;
+	private final int moves;
+	private final long millis;
+
+	GameRecord(int game, String[] seats, double[] score, int moves, long millis) {
+		this.game = game;
+		this.seats = seats;
+		this.score = score;
+		this.moves = moves;
+		this.millis = millis;
+	}
+
+	public int getGame() {
+		return game;
+	}
+
+	/**
+	 * @return the name of the engine in each seat, in player order
+	 */
+	public String[] getSeats() {
+		return seats;
+	}
+
+	/**
+	 * @return the final score of each seat, as returned by Board.getScore
+	 */
+	public double[] getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the number of moves played, including chance moves
+	 */
+	public int getMoves() {
+		return moves;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	/**
+	 * @return 1 if the seat won, 0 if it tied for the highest score, -1 if it lost, or
+	 * Integer.MIN_VALUE in single player games
+	 */
+	public int getOutcome(int seat) {
+		if (score.length < 2) {
+			return Integer.MIN_VALUE;
+		}
+		boolean tied = false;
+		for (int i = 0; i < score.length; i++) {
+			if (i != seat) {
+				if (score[i] > score[seat]) {
+					return -1;
+				}
+				tied |= score[i] == score[seat];
+			}
+		}
+		return tied ? 0 : 1;
+	}
+}
@@ -0,0 +1,208 @@
+package main.tournament;
+
+import main.Board;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Finds the best of a set of engine configurations by successive halving. Every
+ * surviving candidate plays a batch of games, the better half by mean score goes on to
+ * the next round, and the batch doubles, until one candidate is left. Results carry over
+ * from round to round. Losing
+ * configurations therefore cost few games and the close contest at the end gets the
+ * most.
+ * <p>
+ * In games of two or more players each candidate plays against a fixed opponent, with
+ * the seats rotating as in a {@link Tournament}. Single player games need no opponent.
+ * All candidates' games run on one pool of threads, and every candidate sees the same
+ * chance moves whenever its choices agree with the others'.
+ * <p>
+ * Candidates are ranked by mean score alone, so they must all search with the same
+ * budget. More runs or more time nearly always score better, and a tuner that offered
+ * the budget as a dimension would only find the most expensive candidate. The
+ * constructor therefore rejects candidates whose runs or time differ; to weigh strength
+ * against cost, tune at each budget separately.
+ */
+public class ParameterTuner {
+
+	private final Function<RandomGenerator, ? extends Board> newGame;
+	private final List<EngineConfig> candidates;
+	private EngineConfig opponent;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = System.nanoTime();
+	private boolean progress;
+	private final List<Tournament> tournaments = new ArrayList<>();
+	private final int[] roundsSurvived;
+
+	/**
+	 * @param newGame    creates the starting board of each game. See {@link Tournament}
+	 * @param candidates the configurations to compare. Names must be unique and all must
+	 *                   have the same runs and time budget
+	 */
+	public ParameterTuner(Function<RandomGenerator, ? extends Board> newGame, List<EngineConfig> candidates) {
+		if (candidates.isEmpty()) {
+			throw new IllegalArgumentException("No candidates");
+		}
+		EngineConfig first = candidates.get(0);
+		for (EngineConfig candidate : candidates) {
+			if (candidate.getRuns() != first.getRuns() || candidate.getMaxTime() != first.getMaxTime()) {
+				throw new IllegalArgumentException("Candidates must share one budget, but " + candidate.getName() +
+						" has runs " + candidate.getRuns() + " and max time " + candidate.getMaxTime() + " where " +
+						first.getName() + " has runs " + first.getRuns() + " and max time " + first.getMaxTime());
+			}
+		}
+		this.newGame = newGame;
+		this.candidates = new ArrayList<>(candidates);
+		this.roundsSurvived = new int[candidates.size()];
+	}
+
+	/**
+	 * Creates a candidate for every combination of the given values, all with the same
+	 * budget.
+	 *
+	 * @param explorationConstants      values for {@link EngineConfig#getExplorationConstant()}
+	 * @param gamesSimulatedByHeuristic values for {@link EngineConfig#setGamesSimulatedByHeuristic(int)}
+	 * @param runs                      iterations per move of every candidate. Ignored if 0
+	 * @param maxTime                   time (in ms) per move of every candidate. Ignored unless runs == 0
+	 * @param setup                     applies the settings common to all candidates, such as the heuristic
+	 */
+	public static List<EngineConfig> grid(double[] explorationConstants, int[] gamesSimulatedByHeuristic,
+	                                      int runs, long maxTime, Consumer<EngineConfig> setup) {
+		List<EngineConfig> grid = new ArrayList<>();
+		for (double c : explorationConstants) {
+			for (int h : gamesSimulatedByHeuristic) {
+				EngineConfig config = new EngineConfig("c" + c + " h" + h, c, runs, maxTime);
+				setup.accept(config.setGamesSimulatedByHeuristic(h));
+				grid.add(config);
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Sets the engine every candidate plays against. Required for games of more than
+	 * one player. Its name must differ from the candidates' names.
+	 */
+	public void setOpponent(EngineConfig opponent) {
+		this.opponent = opponent;
+	}
+
+	/**
+	 * Sets the number of games played at once. Default is the number of processors.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be positive, was " + threads);
+		}
+		this.threads = threads;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Prints the standings after each round. Off by default.
+	 */
+	public void setProgress(boolean progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Runs the rounds until one candidate is left.
+	 *
+	 * @param firstRoundGames the games each candidate plays in the first round
+	 * @return the best candidate
+	 */
+	public EngineConfig tune(int firstRoundGames) {
+		if (firstRoundGames < 1) {
+			throw new IllegalArgumentException("firstRoundGames must be positive, was " + firstRoundGames);
+		}
+		if (opponent == null && newGame.apply(new SplittableRandom(seed)).getQuantityOfPlayers() > 1) {
+			throw new IllegalStateException("An opponent is required for games of more than one player");
+		}
+		tournaments.clear();
+		for (EngineConfig candidate : candidates) {
+			List<EngineConfig> engines = new ArrayList<>();
+			engines.add(candidate);
+			if (opponent != null) {
+				engines.add(opponent);
+			}
+			Tournament tournament = new Tournament(newGame, engines);
+			tournament.setSeed(seed);
+			tournaments.add(tournament);
+		}
+
+		List<Integer> survivors = new ArrayList<>();
+		for (int i = 0; i < candidates.size(); i++) {
+			survivors.add(i);
+		}
+		int games = firstRoundGames;
+		for (int round = 1; ; round++) {
+			List<Tournament> playing = new ArrayList<>();
+			for (int i : survivors) {
+				playing.add(tournaments.get(i));
+				roundsSurvived[i] = round;
+			}
+			Tournament.play(playing, games, threads);
+			survivors.sort(Comparator.comparingDouble((Integer i) -> getStats(i).getMeanScore()).reversed());
+			if (progress) {
+				System.out.println("Round " + round + ", " + games + " games each:");
+				for (int i : survivors) {
+					System.out.println("  " + getStats(i));
+				}
+			}
+			survivors = new ArrayList<>(survivors.subList(0, (survivors.size() + 1) / 2));
+			if (survivors.size() == 1) {
+				return candidates.get(survivors.get(0));
+			}
+			games *= 2;
+		}
+	}
+
+	/**
+	 * @return the results of each candidate against the opponent, in candidate order
+	 */
+	public List<EngineStats> getStats() {
+		List<EngineStats> stats = new ArrayList<>();
+		for (int i = 0; i < tournaments.size(); i++) {
+			stats.add(getStats(i));
+		}
+		return stats;
+	}
+
+	private EngineStats getStats(int candidate) {
+		return tournaments.get(candidate).getStats().get(0);
+	}
+
+	/**
+	 * Writes one row per candidate with its settings, the last round it played and its
+	 * results over all its games.
+	 */
+	public void writeCsv(File file) throws IOException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			writer.write("engine,exploration_constant,games_simulated_by_heuristic,runs,max_time,rounds,games,mean_score,score_low,score_high\n");
+			for (int i = 0; i < tournaments.size(); i++) {
+				EngineConfig candidate = candidates.get(i);
+				EngineStats stats = getStats(i);
+				double[] score = stats.getScoreInterval();
+				writer.write(Tournament.csv(candidate.getName()) + "," + candidate.getExplorationConstant() + "," +
+						candidate.getGamesSimulatedByHeuristic() + "," + candidate.getRuns() + "," + candidate.getMaxTime() + "," +
+						roundsSurvived[i] + "," + stats.getGames() + "," + stats.getMeanScore() + "," + score[0] + "," + score[1] + "\n");
+			}
+		}
+	}
+}
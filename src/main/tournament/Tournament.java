@@ -0,0 +1,271 @@
+package main.tournament;
+
+import main.Board;
+import main.MCTS;
+import main.Move;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays independent games between engine configurations on several threads at once.
+ * <p>
+ * Seats are assigned in rotation: in game g, player p is played by engine
+ * (g + p) % engines. Two engines in a two player game therefore alternate colours, a
+ * single engine plays itself, and in single player games such as 2048 the engines take
+ * turns. Chance moves are drawn from a generator seeded from the tournament seed and the
+ * round, where a round is one game for every rotation of the engines. Engines in the same
+ * round therefore see the same luck whenever they make the same choices. The engines of
+ * each game get their own streams, derived from the tournament seed and the game, so a
+ * tournament with run budgets replays exactly from its seed on any number of threads.
+ * <p>
+ * Each game builds its engines afresh, so no playout statistics, solved positions or
+ * search trees carry over from the games a worker thread played before. Searches on
+ * different threads compete for the CPU, so give time budgets to no more engines than
+ * there are cores.
+ */
+public class Tournament {
+
+	private final Function<RandomGenerator, ? extends Board> newGame;
+	private final List<EngineConfig> engines;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed = System.nanoTime();
+	private boolean progress;
+	private final List<GameRecord> records = new ArrayList<>();
+
+	/**
+	 * @param newGame creates the starting board of each game. Games that begin with chance
+	 *                moves, such as 2048, may use the game's generator to make them
+	 * @param engines the engines taking part. Names must be unique
+	 */
+	public Tournament(Function<RandomGenerator, ? extends Board> newGame, List<EngineConfig> engines) {
+		if (engines.isEmpty()) {
+			throw new IllegalArgumentException("No engines");
+		}
+		for (int i = 0; i < engines.size(); i++) {
+			for (int j = 0; j < i; j++) {
+				if (engines.get(i).getName().equals(engines.get(j).getName())) {
+					throw new IllegalArgumentException("Duplicate engine name " + engines.get(i).getName());
+				}
+			}
+		}
+		this.newGame = newGame;
+		this.engines = new ArrayList<>(engines);
+	}
+
+	/**
+	 * Sets the number of games played at once. Default is the number of processors.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be positive, was " + threads);
+		}
+		this.threads = threads;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Prints a line as each game finishes. Off by default.
+	 */
+	public void setProgress(boolean progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Plays more games and adds them to the results.
+	 *
+	 * @param games the number of games to play
+	 */
+	public void play(int games) {
+		play(Collections.singletonList(this), games, threads);
+	}
+
+	/**
+	 * Plays more games of several tournaments on one pool of threads, so that small
+	 * tournaments still keep every thread busy.
+	 */
+	static void play(List<Tournament> tournaments, int games, int threads) {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CompletionService<GameRecord> completion = new ExecutorCompletionService<>(executor);
+			Map<Future<GameRecord>, Tournament> owners = new IdentityHashMap<>();
+			for (Tournament tournament : tournaments) {
+				int first = tournament.records.size();
+				for (int g = first; g < first + games; g++) {
+					int game = g;
+					owners.put(completion.submit(() -> tournament.playGame(game)), tournament);
+				}
+			}
+			Map<Tournament, List<GameRecord>> played = new IdentityHashMap<>();
+			for (int i = 0; i < owners.size(); i++) {
+				Future<GameRecord> future = completion.take();
+				GameRecord record = future.get();
+				Tournament tournament = owners.get(future);
+				played.computeIfAbsent(tournament, t -> new ArrayList<>(games)).add(record);
+				if (tournament.progress) {
+					System.out.println((i + 1) + "/" + owners.size() + ": game " + record.getGame() + " " +
+							String.join(" vs ", record.getSeats()) + " scored " + Arrays.toString(record.getScore()) +
+							" in " + record.getMoves() + " moves");
+				}
+			}
+			for (Map.Entry<Tournament, List<GameRecord>> entry : played.entrySet()) {
+				entry.getValue().sort((a, b) -> Integer.compare(a.getGame(), b.getGame()));
+				entry.getKey().records.addAll(entry.getValue());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Tournament interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Tournament game failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private GameRecord playGame(int game) {
+		long start = System.currentTimeMillis();
+		int round = game / engines.size();
+		SplittableRandom random = stream(seed, 2L * round);
+		Board board = newGame.apply(random);
+		int players = board.getQuantityOfPlayers();
+		EngineConfig[] seats = new EngineConfig[players];
+		String[] names = new String[players];
+		SplittableRandom engineStreams = stream(seed, 2L * game + 1);
+		Map<EngineConfig, MCTS> gameEngines = new HashMap<>();
+		for (int p = 0; p < players; p++) {
+			seats[p] = engines.get((game + p) % engines.size());
+			names[p] = seats[p].getName();
+			gameEngines.computeIfAbsent(seats[p], EngineConfig::newEngine).setRandomGenerator(engineStreams.split());
+		}
+		int moves = 0;
+		while (!board.gameOver()) {
+			int player = board.getCurrentPlayer();
+			Move move;
+			if (player < 0) {
+				move = randomChoice(board, random);
+			} else {
+				EngineConfig engine = seats[player];
+				move = engine.chooseMove(gameEngines.get(engine), board);
+			}
+			board.makeMove(move);
+			moves++;
+		}
+		return new GameRecord(game, names, board.getScore().clone(), moves, System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Returns the generator of one of the independent streams derived from seed.
+	 */
+	private static SplittableRandom stream(long seed, long index) {
+		return new SplittableRandom(new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L).nextLong());
+	}
+
+	static Move randomChoice(Board board, RandomGenerator random) {
+		List<Move> moves = board.getMoves(random);
+		double[] weights = board.getMoveWeights();
+		double totalWeight = 0.0d;
+		for (double weight : weights) {
+			totalWeight += weight;
+		}
+		double r = random.nextDouble() * totalWeight;
+		for (int i = 0; i < weights.length - 1; i++) {
+			r -= weights[i];
+			if (r < 0.0d) {
+				return moves.get(i);
+			}
+		}
+		return moves.get(weights.length - 1);
+	}
+
+	/**
+	 * @return every game played so far, in game order
+	 */
+	public List<GameRecord> getRecords() {
+		return Collections.unmodifiableList(records);
+	}
+
+	/**
+	 * @return the statistics of each engine, in the order the engines were given
+	 */
+	public List<EngineStats> getStats() {
+		Map<String, EngineStats> stats = new LinkedHashMap<>();
+		for (EngineConfig engine : engines) {
+			stats.put(engine.getName(), new EngineStats(engine.getName()));
+		}
+		for (GameRecord record : records) {
+			String[] seats = record.getSeats();
+			for (int p = 0; p < seats.length; p++) {
+				stats.get(seats[p]).add(record.getScore()[p], record.getOutcome(p));
+			}
+		}
+		return new ArrayList<>(stats.values());
+	}
+
+	/**
+	 * Writes one row per game and seat: game, seat, engine, score, outcome, moves, ms.
+	 */
+	public void writeGamesCsv(File file) throws IOException {
+		try (Writer writer = newWriter(file)) {
+			writer.write("game,seat,engine,score,outcome,moves,ms\n");
+			for (GameRecord record : records) {
+				for (int p = 0; p < record.getSeats().length; p++) {
+					int outcome = record.getOutcome(p);
+					writer.write(record.getGame() + "," + p + "," + csv(record.getSeats()[p]) + "," + record.getScore()[p] + "," +
+							(outcome == Integer.MIN_VALUE ? "" : outcome) + "," + record.getMoves() + "," + record.getMillis() + "\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes one row per engine with its results and 95% confidence intervals.
+	 */
+	public void writeSummaryCsv(File file) throws IOException {
+		try (Writer writer = newWriter(file)) {
+			writer.write("engine,games,wins,draws,losses,win_rate,win_rate_low,win_rate_high,mean_score,score_low,score_high,score_sd\n");
+			for (EngineStats stats : getStats()) {
+				double[] winRate = stats.getWinRateInterval();
+				double[] score = stats.getScoreInterval();
+				writer.write(csv(stats.getName()) + "," + stats.getGames() + "," + stats.getWins() + "," + stats.getDraws() + "," +
+						stats.getLosses() + "," + stats.getWinRate() + "," + winRate[0] + "," + winRate[1] + "," +
+						stats.getMeanScore() + "," + score[0] + "," + score[1] + "," + stats.getScoreDeviation() + "\n");
+			}
+		}
+	}
+
+	private static Writer newWriter(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+	}
+
+	static String csv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,85 @@
+package perf;
+
+import azul.AzulPerfCases;
+import connectFour.ConnectFourPerfCases;
+import dylanean.DylaneanChessPerfCases;
+import main.Board;
+import main.MCTS;
+import main.SearchStats;
+import main.perf.PerfCase;
+import ticTacToe.TicTacToePerfCases;
+import twothousandfortyeight.TTFEPerfCases;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the bytes allocated per iteration in each phase of the search against an upper
+ * bound for every position of the performance regression suite. Bounds sit about 15% above
+ * the measured allocation, and at least 16 bytes for phases that allocate next to nothing.
+ * Lower a bound to match whenever an allocation is removed, so that it cannot come back
+ * unnoticed.
+ */
+class AllocationBudgetTest {
+
+	private static final int MAX_RUNS = 2000;
+	private static final long SEED = 1L;
+
+	/** Bytes per iteration in tree policy, expansion, playout and back propagation */
+	private static final Map<String, long[]> BUDGETS = new HashMap<>();
+
+	static {
+		// Selection and back propagation allocate nothing themselves. What remains in the
+		// tree policy is allocated by the games' makeMove, gameOver and getMoveWeights
+		BUDGETS.put("azul.first-round", new long[]{160, 63_500, 108_700, 0});
+		BUDGETS.put("connectFour.empty", new long[]{16, 4_200, 3_550, 0});
+		BUDGETS.put("connectFour.six-plies", new long[]{16, 4_150, 2_350, 0});
+		BUDGETS.put("dylanean.setup", new long[]{190, 11_950, 872_200, 0});
+		BUDGETS.put("dylanean.mid-game", new long[]{720, 5_880, 395_000, 0});
+		BUDGETS.put("ticTacToe.empty", new long[]{16, 1_720, 545, 0});
+		BUDGETS.put("2048.start", new long[]{45, 715, 66_100, 0});
+	}
+
+	public static void main(String[] args) {
+		List<PerfCase> cases = new ArrayList<>();
+		cases.addAll(AzulPerfCases.cases());
+		cases.addAll(ConnectFourPerfCases.cases());
+		cases.addAll(DylaneanChessPerfCases.cases());
+		cases.addAll(TicTacToePerfCases.cases());
+		cases.addAll(TTFEPerfCases.cases());
+
+		for (PerfCase perfCase : cases) {
+			long[] budget = BUDGETS.get(perfCase.getName());
+			if (budget == null) {
+				throw new IllegalStateException("No allocation budget for " + perfCase.getName());
+			}
+			// The first search warms up the JIT, whose escape analysis removes many allocations
+			search(perfCase);
+			SearchStats stats = search(perfCase);
+			long iterations = stats.getIterations();
+			long[] bytes = {
+					stats.getTreePolicyBytes() / iterations,
+					stats.getExpansionBytes() / iterations,
+					stats.getPlayoutBytes() / iterations,
+					stats.getBackPropagationBytes() / iterations};
+			String[] phases = {"tree policy", "expansion", "playout", "back propagation"};
+			for (int i = 0; i < phases.length; i++) {
+				if (bytes[i] > budget[i]) {
+					throw new IllegalStateException(perfCase.getName() + " allocates " + bytes[i] + " bytes per iteration in " +
+							phases[i] + ", over the budget of " + budget[i]);
+				}
+			}
+			System.out.println(perfCase.getName() + " ok: " + bytes[0] + ", " + bytes[1] + ", " + bytes[2] + ", " + bytes[3]);
+		}
+	}
+
+	private static SearchStats search(PerfCase perfCase) {
+		Board board = perfCase.newPosition();
+		MCTS mcts = perfCase.newEngine(SEED);
+		mcts.setAllocationTracking(true);
+		mcts.runMCTS(board, Math.min(perfCase.getRuns(), MAX_RUNS), 0L, mcts.newRootNode(board));
+		return mcts.getSearchStats();
+	}
+}
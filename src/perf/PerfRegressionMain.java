@@ -0,0 +1,77 @@
+package perf;
+
+import azul.AzulPerfCases;
+import connectFour.ConnectFourPerfCases;
+import dylanean.DylaneanChessPerfCases;
+import main.perf.PerfCase;
+import main.perf.PerfRegressionSuite;
+import main.perf.PerfResult;
+import ticTacToe.TicTacToePerfCases;
+import twothousandfortyeight.TTFEPerfCases;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the performance regression suite over every game.
+ * <p>
+ * Arguments: [--record] [--tolerance percent] [--baseline file]. With --record the
+ * results become the new baseline. Otherwise they are compared with the baseline and
+ * the exit status is 1 if any case regressed. Baselines depend on the machine, so record
+ * one on the machine that runs the comparisons.
+ */
+public class PerfRegressionMain {
+
+	public static void main(String[] args) throws IOException {
+		boolean record = false;
+		double tolerance = 10.0;
+		File baselineFile = new File("perf-baseline.properties");
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--record":
+					record = true;
+					break;
+				case "--tolerance":
+					tolerance = Double.parseDouble(args[++i]);
+					break;
+				case "--baseline":
+					baselineFile = new File(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}
+		}
+
+		List<PerfCase> cases = new ArrayList<>();
+		cases.addAll(AzulPerfCases.cases());
+		cases.addAll(ConnectFourPerfCases.cases());
+		cases.addAll(DylaneanChessPerfCases.cases());
+		cases.addAll(TicTacToePerfCases.cases());
+		cases.addAll(TTFEPerfCases.cases());
+		PerfRegressionSuite suite = new PerfRegressionSuite(cases);
+		suite.setTolerance(tolerance);
+		List<PerfResult> results = suite.run();
+
+		if (record) {
+			PerfRegressionSuite.saveBaseline(results, baselineFile);
+			System.out.println("Recorded baseline in " + baselineFile);
+			return;
+		}
+		List<String> regressions = suite.compare(results, PerfRegressionSuite.loadBaseline(baselineFile));
+		for (PerfResult result : results) {
+			if (!result.isRepeatable()) {
+				regressions.add(result.getName() + " did not repeat the same search");
+			}
+		}
+		if (!regressions.isEmpty()) {
+			System.out.println("Performance regressions:");
+			for (String regression : regressions) {
+				System.out.println("  " + regression);
+			}
+			System.exit(1);
+		}
+		System.out.println("No performance regressions");
+	}
+}
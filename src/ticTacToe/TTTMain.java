@@ -17,6 +17,9 @@ class TTTMain {
 		MCTS mcts = new MCTS();
 		mcts.setExplorationConstant(0.2);
 		mcts.setTimeDisplay(true);
+		mcts.setCompactStatistics(true);
+		mcts.setSymmetryMerging(true);
+		mcts.setSolvedPositionCache(1 << 20);
 		Move move;
 		int[] scores = new int[3];
 
@@ -26,7 +29,7 @@ class TTTMain {
 				if (humanPlayer[ttt.currentPlayer]) {
 					move = getHumanMove(ttt);
 				} else {
-					Node rootNode = new Node(ttt);
+					Node rootNode = mcts.newRootNode(ttt);
 					move = mcts.runMctsAndGetBestNode(ttt, 1000000, 0L, rootNode);
 				}
 				ttt.makeMove(move);
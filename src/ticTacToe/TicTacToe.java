@@ -53,6 +53,41 @@ public class TicTacToe implements Board {
 		return moves;
 	}
 
+	/**
+	 * Encodes the nine cells in base 3. The player to move follows from the number of marks.
+	 */
+	@Override
+	public long getPositionHash() {
+		return encode(0);
+	}
+
+	/**
+	 * The smallest code of the eight rotations and reflections of the board.
+	 */
+	@Override
+	public long getCanonicalHash() {
+		long min = Long.MAX_VALUE;
+		for (int symmetry = 0; symmetry < 8; symmetry++) {
+			min = Math.min(min, encode(symmetry));
+		}
+		return min;
+	}
+
+	/**
+	 * @param symmetry bit 0 mirrors x, bit 1 mirrors y and bit 2 swaps them
+	 */
+	private long encode(int symmetry) {
+		long code = 0;
+		for (int x = 0; x < 3; x++) {
+			for (int y = 0; y < 3; y++) {
+				int tx = (symmetry & 1) == 0 ? x : 2 - x;
+				int ty = (symmetry & 2) == 0 ? y : 2 - y;
+				code = code * 3 + ((symmetry & 4) == 0 ? board[tx][ty] : board[ty][tx]);
+			}
+		}
+		return code;
+	}
+
 	@Override
 	public void makeMove(Move m) {
 		TicTacToeMove move = (TicTacToeMove) m;
@@ -16,6 +16,25 @@ class TicTacToeMove implements Move {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		TicTacToeMove that = (TicTacToeMove) o;
+
+		return x == that.x && y == that.y;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
+	}
+
 	@Override
 	public String toString() {
 		return "[" + x + "," + y + "]";
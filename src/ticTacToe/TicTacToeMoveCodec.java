@@ -0,0 +1,26 @@
+package ticTacToe;
+
+import main.Move;
+import main.support.MoveCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a move as two bytes, x then y.
+ */
+public class TicTacToeMoveCodec implements MoveCodec {
+
+	@Override
+	public void encode(Move move, DataOutput out) throws IOException {
+		TicTacToeMove ticTacToeMove = (TicTacToeMove) move;
+		out.writeByte(ticTacToeMove.x);
+		out.writeByte(ticTacToeMove.y);
+	}
+
+	@Override
+	public Move decode(ByteBuffer in) {
+		return new TicTacToeMove(in.get(), in.get());
+	}
+}
@@ -0,0 +1,18 @@
+package ticTacToe;
+
+import main.perf.PerfCase;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Tic Tac Toe positions of the performance regression suite. The search solves the
+ * empty board before it uses up its runs.
+ */
+public class TicTacToePerfCases {
+
+	public static List<PerfCase> cases() {
+		return Collections.singletonList(new PerfCase("ticTacToe.empty", 100_000, TicTacToe::new)
+				.setEngine(mcts -> mcts.setCompactStatistics(true)));
+	}
+}
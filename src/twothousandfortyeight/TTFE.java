@@ -4,7 +4,7 @@ import main.Board;
 import main.Move;
 
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class TTFE implements Board {
 	public int[][] board;
@@ -24,6 +24,8 @@ public class TTFE implements Board {
 	}
 
 	private TTFE(TTFE n) {
+		size = n.size;
+		board = new int[size][size];
 		turns = n.turns;
 		maxTile = n.maxTile;
 		score = n.score;
@@ -69,7 +71,7 @@ public class TTFE implements Board {
 		return out;
 	}
 
-	Move makeRandomChoice(Random r) {
+	Move makeRandomChoice(RandomGenerator r) {
 		ArrayList<Move> out = new ArrayList<>();
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
@@ -83,6 +85,73 @@ public class TTFE implements Board {
 		return out.get(r.nextInt(out.size()));
 	}
 
+	/**
+	 * Hashes the cells, the score and the player to move.
+	 */
+	@Override
+	public long getPositionHash() {
+		return hash(0);
+	}
+
+	/**
+	 * The smallest hash of the eight rotations and reflections of the board. Sliding
+	 * treats every direction alike, so they all have the same value.
+	 */
+	@Override
+	public long getCanonicalHash() {
+		long min = Long.MAX_VALUE;
+		for (int symmetry = 0; symmetry < 8; symmetry++) {
+			min = Math.min(min, hash(symmetry));
+		}
+		return min;
+	}
+
+	/**
+	 * @param symmetry bit 0 mirrors x, bit 1 mirrors y and bit 2 swaps them
+	 */
+	private long hash(int symmetry) {
+		long hash = currentPlayer;
+		hash = hash * 31 + score;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				int tx = (symmetry & 1) == 0 ? x : size - 1 - x;
+				int ty = (symmetry & 2) == 0 ? y : size - 1 - y;
+				hash = hash * 0x9E3779B97F4A7C15L + ((symmetry & 4) == 0 ? board[tx][ty] : board[ty][tx]);
+			}
+		}
+		// Finalizer of MurmurHash3 to spread the bits of the hash
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Places a 1 or a 2 on an empty cell, all equally likely.
+	 */
+	@Override
+	public Move sampleChanceMove(RandomGenerator random) {
+		int empty = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (board[x][y] == 0) {
+					empty++;
+				}
+			}
+		}
+		int cell = random.nextInt(2 * empty);
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (board[x][y] == 0 && (cell -= 2) < 0) {
+					return new TTFEMove(x, y, cell + 3);
+				}
+			}
+		}
+		throw new IllegalStateException("No empty cell");
+	}
+
 	@Override
 	public void makeMove(Move m) {
 		TTFEMove move = (TTFEMove) m;
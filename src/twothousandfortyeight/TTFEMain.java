@@ -27,6 +27,7 @@ class TTFEMain {
 	private static void runGame(int games, double constant, int iterations, boolean print, String filename, String lprefix) {
 		MCTS mcts = new MCTS();
 		mcts.setExplorationConstant(constant);
+		mcts.setChanceWidening(1.0d, 0.5d);
 		mcts.setTimeDisplay(true);
 		Move move;
 		Random random = new Random();
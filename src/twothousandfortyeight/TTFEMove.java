@@ -32,4 +32,27 @@ class TTFEMove implements Move {
 		return dir.compareTo(mv.dir);
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		TTFEMove that = (TTFEMove) o;
+
+		return x == that.x && y == that.y && dir == that.dir && val == that.val;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = x;
+		result = 31 * result + y;
+		result = 31 * result + dir.ordinal();
+		result = 31 * result + val;
+		return result;
+	}
+
 }
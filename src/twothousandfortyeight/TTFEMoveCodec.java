@@ -0,0 +1,35 @@
+package twothousandfortyeight;
+
+import main.Move;
+import main.support.MoveCodec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a move as four bytes: the direction of a player move, then the position
+ * and value of the tile placed by a random move.
+ */
+public class TTFEMoveCodec implements MoveCodec {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	@Override
+	public void encode(Move move, DataOutput out) throws IOException {
+		TTFEMove ttfeMove = (TTFEMove) move;
+		out.writeByte(ttfeMove.dir.ordinal());
+		out.writeByte(ttfeMove.x);
+		out.writeByte(ttfeMove.y);
+		out.writeByte(ttfeMove.val);
+	}
+
+	@Override
+	public Move decode(ByteBuffer in) {
+		TTFEMove move = new TTFEMove(DIRECTIONS[in.get()]);
+		move.x = in.get();
+		move.y = in.get();
+		move.val = in.get();
+		return move;
+	}
+}
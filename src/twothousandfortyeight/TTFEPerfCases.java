@@ -0,0 +1,24 @@
+package twothousandfortyeight;
+
+import main.perf.PerfCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The 2048 positions of the performance regression suite.
+ */
+public class TTFEPerfCases {
+
+	private static final long START_SEED = 2048L;
+
+	public static List<PerfCase> cases() {
+		return Collections.singletonList(
+				new PerfCase("2048.start", 5_000, () -> TTFETournament.newGame(new Random(START_SEED)))
+						.setEngine(mcts -> {
+							mcts.setExplorationConstant(0.3d);
+							mcts.setChanceWidening(1.0d, 0.5d);
+						}));
+	}
+}
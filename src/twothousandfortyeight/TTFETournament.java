@@ -0,0 +1,47 @@
+package twothousandfortyeight;
+
+import main.tournament.EngineConfig;
+import main.tournament.EngineStats;
+import main.tournament.Tournament;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compares exploration constants for 2048 on all cores. Engines in the same round start
+ * from the same tiles and see the same tiles appear while their moves agree.
+ */
+class TTFETournament {
+
+	private static final int GAMES = 100;
+	private static final int RUNS = 2000;
+
+	public static void main(String[] args) throws IOException {
+		Tournament tournament = new Tournament(TTFETournament::newGame, Arrays.asList(
+				new EngineConfig("c0.3", 0.3d, RUNS, 0L),
+				new EngineConfig("c0.5", 0.5d, RUNS, 0L),
+				new EngineConfig("c1.4", 1.4d, RUNS, 0L),
+				new EngineConfig("c0.3-widened", 0.3d, RUNS, 0L).setChanceWidening(1.0d, 0.5d)));
+		tournament.setProgress(true);
+		tournament.play(GAMES);
+		for (EngineStats stats : tournament.getStats()) {
+			System.out.println(stats);
+		}
+		tournament.writeGamesCsv(new File("2048-games.csv"));
+		tournament.writeSummaryCsv(new File("2048-summary.csv"));
+	}
+
+	/**
+	 * Starts the game with two random pieces placed
+	 */
+	static TTFE newGame(RandomGenerator random) {
+		TTFE b = new TTFE(4);
+		b.currentPlayer = -1;
+		b.makeMove(b.makeRandomChoice(random));
+		b.currentPlayer = -1;
+		b.makeMove(b.makeRandomChoice(random));
+		return b;
+	}
+}
@@ -0,0 +1,31 @@
+package twothousandfortyeight;
+
+import main.MCTS;
+import main.tournament.EngineConfig;
+import main.tournament.ParameterTuner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tunes the exploration constant for 2048 by successive halving over the values
+ * TTFEMain used to be run with one at a time.
+ */
+class TTFETuner {
+
+	public static void main(String[] args) throws IOException {
+		List<EngineConfig> candidates = ParameterTuner.grid(
+				new double[]{0.3d, 0.4d, 0.5d, 1.0d, 1.4d, 2.8d},
+				new int[]{MCTS.GAMES_SIMULATED_BY_HEURISTIC},
+				2000,
+				0L,
+				config -> {
+				});
+		ParameterTuner tuner = new ParameterTuner(TTFETournament::newGame, candidates);
+		tuner.setProgress(true);
+		EngineConfig best = tuner.tune(8);
+		System.out.println("Best: " + best);
+		tuner.writeCsv(new File("2048-tuning.csv"));
+	}
+}
@@ -0,0 +1,38 @@
+package main;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Computes the bounds of as many children at once as the CPU's widest vectors hold. The
+ * lane operations are the same IEEE operations as the scalar kernel's, so both give
+ * identical values.
+ */
+class VectorUcbKernel implements UcbKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	@Override
+	public void compute(double[] scores, double[] games, int count, double log, double c, double[] values) {
+		int bound = SPECIES.loopBound(count);
+		if (bound > 0) {
+			DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+			DoubleVector infinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+			DoubleVector logs = DoubleVector.broadcast(SPECIES, log);
+			// A broadcast rather than a choice between vectors, which C2 could not keep in registers
+			DoubleVector unvisitedExploration = DoubleVector.broadcast(SPECIES, log == 0 ? 1.0 : Double.POSITIVE_INFINITY);
+			for (int i = 0; i < bound; i += SPECIES.length()) {
+				DoubleVector g = DoubleVector.fromArray(SPECIES, games, i);
+				DoubleVector s = DoubleVector.fromArray(SPECIES, scores, i);
+				VectorMask<Double> unvisited = g.compare(VectorOperators.EQ, 0.0);
+				DoubleVector unvisitedExploitation = infinity.blend(one, s.compare(VectorOperators.EQ, 0.0));
+				DoubleVector exploitation = s.div(g).blend(unvisitedExploitation, unvisited);
+				DoubleVector exploration = logs.div(g).blend(unvisitedExploration, unvisited);
+				exploitation.add(exploration.sqrt().mul(c)).intoArray(values, i);
+			}
+		}
+		ScalarUcbKernel.compute(scores, games, bound, count, log, c, values);
+	}
+}